@@ -0,0 +1,18 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.ExerciseResult;
+
+// One exercise plugged into the single-pass analysis. Receives only frames
+// that have landmarks, together with the features shared by all exercises.
+// Instances hold the state of one video; the registry creates fresh ones for
+// every analysis.
+public interface ExerciseAnalyzer {
+
+    // Key of this exercise in the report, e.g. "pushup"
+    String getExercise();
+
+    void accept(FrameFeatures features);
+
+    // Result for the frames seen so far
+    ExerciseResult result();
+}
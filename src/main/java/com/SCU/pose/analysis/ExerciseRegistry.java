@@ -0,0 +1,36 @@
+package com.SCU.pose.analysis;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+// Exercises that every video is analyzed for. Push-ups and planks are
+// registered by default; other beans can add exercises with register(), for
+// example from a @PostConstruct method.
+@Component
+public class ExerciseRegistry {
+
+    private final List<Supplier<? extends ExerciseAnalyzer>> exercises = new CopyOnWriteArrayList<>();
+
+    public ExerciseRegistry() {
+        register(PushupAnalyzer::new);
+        register(PlankAnalyzer::new);
+    }
+
+    // The supplier must return a new analyzer on every call
+    public void register(Supplier<? extends ExerciseAnalyzer> exercise) {
+        exercises.add(exercise);
+    }
+
+    // Fresh analyzers for all registered exercises, driven in one pass
+    public MultiExerciseAnalyzer newAnalyzer() {
+        List<ExerciseAnalyzer> analyzers = new ArrayList<>(exercises.size());
+        for (Supplier<? extends ExerciseAnalyzer> exercise : exercises) {
+            analyzers.add(exercise.get());
+        }
+        return new MultiExerciseAnalyzer(analyzers);
+    }
+}
@@ -0,0 +1,94 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.service.VideoAnalysisService;
+
+import static com.SCU.pose.model.PoseFrame.LEFT_ANKLE;
+import static com.SCU.pose.model.PoseFrame.LEFT_HIP;
+import static com.SCU.pose.model.PoseFrame.LEFT_SHOULDER;
+import static com.SCU.pose.model.PoseFrame.RIGHT_ANKLE;
+import static com.SCU.pose.model.PoseFrame.RIGHT_HIP;
+import static com.SCU.pose.model.PoseFrame.RIGHT_SHOULDER;
+
+// Values derived from one frame that several exercises need. They are
+// computed once per frame and shared by every analyzer, instead of each
+// analyzer looking up the same keypoints again. Joint angles cost an acos, so
+// they are only computed when an analyzer first asks for them. Like
+// PoseFrame, one instance is reused from frame to frame.
+public final class FrameFeatures {
+
+    private PoseFrame frame;
+
+    private double shoulderX, shoulderY, shoulderZ;
+    private double hipX, hipY, hipZ;
+    private double ankleX, ankleY, ankleZ;
+    private double hipAngle;
+
+    // Recompute the features for a frame that has landmarks and return this
+    public FrameFeatures update(PoseFrame frame) {
+        this.frame = frame;
+
+        // Midpoints of shoulders, hips, and ankles
+        shoulderX = (frame.x(LEFT_SHOULDER) + frame.x(RIGHT_SHOULDER)) / 2;
+        shoulderY = (frame.y(LEFT_SHOULDER) + frame.y(RIGHT_SHOULDER)) / 2;
+        shoulderZ = (frame.z(LEFT_SHOULDER) + frame.z(RIGHT_SHOULDER)) / 2;
+        hipX = (frame.x(LEFT_HIP) + frame.x(RIGHT_HIP)) / 2;
+        hipY = (frame.y(LEFT_HIP) + frame.y(RIGHT_HIP)) / 2;
+        hipZ = (frame.z(LEFT_HIP) + frame.z(RIGHT_HIP)) / 2;
+        ankleX = (frame.x(LEFT_ANKLE) + frame.x(RIGHT_ANKLE)) / 2;
+        ankleY = (frame.y(LEFT_ANKLE) + frame.y(RIGHT_ANKLE)) / 2;
+        ankleZ = (frame.z(LEFT_ANKLE) + frame.z(RIGHT_ANKLE)) / 2;
+
+        hipAngle = Double.NaN;
+        return this;
+    }
+
+    // Raw landmarks of the current frame
+    public PoseFrame frame() {
+        return frame;
+    }
+
+    public double shoulderX() {
+        return shoulderX;
+    }
+
+    public double shoulderY() {
+        return shoulderY;
+    }
+
+    public double shoulderZ() {
+        return shoulderZ;
+    }
+
+    public double hipX() {
+        return hipX;
+    }
+
+    public double hipY() {
+        return hipY;
+    }
+
+    public double hipZ() {
+        return hipZ;
+    }
+
+    public double ankleX() {
+        return ankleX;
+    }
+
+    public double ankleY() {
+        return ankleY;
+    }
+
+    public double ankleZ() {
+        return ankleZ;
+    }
+
+    // Angle at the hip between shoulders and ankles; 180 is a straight body line
+    public double hipAngle() {
+        if (Double.isNaN(hipAngle)) {
+            hipAngle = VideoAnalysisService.calculateAngle(shoulderX, shoulderY, shoulderZ, hipX, hipY, hipZ, ankleX, ankleY, ankleZ);
+        }
+        return hipAngle;
+    }
+}
@@ -0,0 +1,19 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.PoseFrame;
+
+// Consumes frames one at a time as they come out of inference and keeps only
+// constant-size state, so results are available as soon as the last frame
+// arrives and no frame list has to be kept around. Not thread-safe: feed each
+// instance from one thread.
+public interface IncrementalAnalyzer<R> {
+
+    // Frames must arrive in video order; frames without landmarks are ignored
+    void accept(PoseFrame frame);
+
+    // Result for the frames seen so far
+    R snapshot();
+
+    // Result once the last frame has been accepted
+    R finish();
+}
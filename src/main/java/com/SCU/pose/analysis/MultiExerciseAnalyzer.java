@@ -0,0 +1,45 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.PoseFrame;
+
+import java.util.List;
+
+// Walks the frames once for all exercises: features are derived once per
+// frame and then handed to every exercise analyzer.
+public class MultiExerciseAnalyzer implements IncrementalAnalyzer<ExerciseReport> {
+
+    private final ExerciseAnalyzer[] analyzers;
+    private final FrameFeatures features = new FrameFeatures();
+    private int framesAnalyzed;
+
+    public MultiExerciseAnalyzer(List<ExerciseAnalyzer> analyzers) {
+        this.analyzers = analyzers.toArray(new ExerciseAnalyzer[0]);
+    }
+
+    @Override
+    public void accept(PoseFrame frame) {
+        if (!frame.hasLandmarks()) {
+            return;
+        }
+        features.update(frame);
+        for (ExerciseAnalyzer analyzer : analyzers) {
+            analyzer.accept(features);
+        }
+        framesAnalyzed++;
+    }
+
+    @Override
+    public ExerciseReport snapshot() {
+        ExerciseReport report = new ExerciseReport(framesAnalyzed);
+        for (ExerciseAnalyzer analyzer : analyzers) {
+            report.addExercise(analyzer.result());
+        }
+        return report;
+    }
+
+    @Override
+    public ExerciseReport finish() {
+        return snapshot();
+    }
+}
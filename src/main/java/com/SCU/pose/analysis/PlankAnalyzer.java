@@ -0,0 +1,88 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.service.VideoAnalysisService.PlankAnalysisResult;
+
+import static com.SCU.pose.model.PoseFrame.RIGHT_ANKLE;
+import static com.SCU.pose.model.PoseFrame.RIGHT_HIP;
+import static com.SCU.pose.model.PoseFrame.RIGHT_SHOULDER;
+
+// Accumulates the number of frames held in plank position and their average
+// alignment score
+public class PlankAnalyzer implements IncrementalAnalyzer<PlankAnalysisResult>, ExerciseAnalyzer {
+
+    public static final String EXERCISE = "plank";
+
+    private double totalPlankScore;
+    private int plankDurations; // Count of key frames in plank position
+    private FrameFeatures features; // Only when fed raw frames
+
+    @Override
+    public void accept(PoseFrame frame) {
+        if (frame.hasLandmarks()) {
+            if (features == null) {
+                features = new FrameFeatures();
+            }
+            accept(features.update(frame));
+        }
+    }
+
+    @Override
+    public void accept(FrameFeatures features) {
+        if (isPlankPosition(features.frame())) {
+            totalPlankScore += scorePlank(features);
+            plankDurations++;
+        }
+    }
+
+    @Override
+    public PlankAnalysisResult snapshot() {
+        double averagePlankScore = plankDurations > 0 ? totalPlankScore / plankDurations : 0;
+        return new PlankAnalysisResult(plankDurations, averagePlankScore);
+    }
+
+    @Override
+    public PlankAnalysisResult finish() {
+        return snapshot();
+    }
+
+    @Override
+    public String getExercise() {
+        return EXERCISE;
+    }
+
+    @Override
+    public ExerciseResult result() {
+        PlankAnalysisResult result = snapshot();
+        return new ExerciseResult(EXERCISE, ExerciseResult.FRAMES, result.getDuration(), result.getAverageScore());
+    }
+
+    static boolean isPlankPosition(PoseFrame frame) {
+        // Example condition: Check if hips are aligned with shoulders and ankles
+        double shouldersY = frame.y(RIGHT_SHOULDER);
+        double hipsY = frame.y(RIGHT_HIP);
+        double anklesY = frame.y(RIGHT_ANKLE);
+
+        // Allow some margin of error in the alignment
+        double alignmentErrorMargin = 0.1; // Example value, adjust based on your requirements
+
+        return Math.abs(shouldersY - hipsY) < alignmentErrorMargin &&
+                Math.abs(hipsY - anklesY) < alignmentErrorMargin;
+    }
+
+    static double scorePlank(FrameFeatures features) {
+        final double MAX_SCORE = 10.0;
+        final double ALIGNMENT_THRESHOLD = 10.0; // Allowable deviation in degrees from perfect alignment
+
+        // Angle at the hip between the shoulder and ankle midpoints, shared with other exercises
+        double angleAtHip = features.hipAngle();
+
+        // Scoring based on the angle, closer to 180 degrees (straight line) is better
+        double deviationFromPerfect = Math.abs(180.0 - angleAtHip);
+        double scoreReduction = (deviationFromPerfect > ALIGNMENT_THRESHOLD) ? (deviationFromPerfect / 180.0) * MAX_SCORE : 0;
+        double score = MAX_SCORE - scoreReduction;
+
+        return Math.max(0, score); // Ensure score is not negative
+    }
+}
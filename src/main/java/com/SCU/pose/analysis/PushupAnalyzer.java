@@ -0,0 +1,106 @@
+package com.SCU.pose.analysis;
+
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.service.VideoAnalysisService.PushupAnalysisResult;
+
+import static com.SCU.pose.model.PoseFrame.LEFT_ELBOW;
+import static com.SCU.pose.model.PoseFrame.RIGHT_HIP;
+import static com.SCU.pose.model.PoseFrame.RIGHT_SHOULDER;
+
+// Counts push-ups with an up/down state machine. A rep is counted when the
+// athlete comes back up, and its form is scored on the first frame of the way
+// down.
+public class PushupAnalyzer implements IncrementalAnalyzer<PushupAnalysisResult>, ExerciseAnalyzer {
+
+    public static final String EXERCISE = "pushup";
+
+    private int pushupCount;
+    private boolean isDown;
+    private double totalScore;
+
+    @Override
+    public void accept(PoseFrame frame) {
+        if (!frame.hasLandmarks()) {
+            return;
+        }
+        if (isPushupDown(frame)) {
+            if (!isDown) {
+                isDown = true;
+                totalScore += scorePushup(frame);
+            }
+        } else if (isDown) {
+            pushupCount++;
+            isDown = false;
+        }
+    }
+
+    // Push-ups only need the raw elbow, shoulder and hip heights
+    @Override
+    public void accept(FrameFeatures features) {
+        accept(features.frame());
+    }
+
+    @Override
+    public PushupAnalysisResult snapshot() {
+        double averageScore = pushupCount > 0 ? totalScore / pushupCount : 0;
+        return new PushupAnalysisResult(pushupCount, averageScore);
+    }
+
+    // A rep still on its way down when the video ends is not counted
+    @Override
+    public PushupAnalysisResult finish() {
+        return snapshot();
+    }
+
+    public int getCount() {
+        return pushupCount;
+    }
+
+    @Override
+    public String getExercise() {
+        return EXERCISE;
+    }
+
+    @Override
+    public ExerciseResult result() {
+        PushupAnalysisResult result = snapshot();
+        return new ExerciseResult(EXERCISE, ExerciseResult.REPS, result.getCount(), result.getAverageScore());
+    }
+
+    // Keypoint 13 (left elbow) against 12 (right shoulder), as the analysis has always used
+    static boolean isPushupDown(PoseFrame frame) {
+        return frame.y(LEFT_ELBOW) > frame.y(RIGHT_SHOULDER);
+    }
+
+    static double scorePushup(PoseFrame frame) {
+        // Constants to define scoring rules
+        final double MAX_SCORE = 10.0;
+        final double MIN_ELBOW_HEIGHT_RATIO = 0.7; // Elbow should not go below 70% of the distance from shoulder to hip for a good form
+        final double MAX_ELBOW_HEIGHT_RATIO = 1.1; // Elbow should not go above 110% for a good form
+
+        // Get the relevant coordinates
+        double elbowY = frame.y(LEFT_ELBOW);
+        double shoulderY = frame.y(RIGHT_SHOULDER);
+        double hipY = frame.y(RIGHT_HIP);
+
+        // Calculate the height ratio of the elbow
+        double shoulderToHipDistance = Math.abs(shoulderY - hipY);
+        double elbowHeightRatio = (elbowY - shoulderY) / shoulderToHipDistance;
+
+        // Check form
+        double score = MAX_SCORE;
+        if (elbowHeightRatio < MIN_ELBOW_HEIGHT_RATIO) {
+            // Penalize for going too low
+            score *= elbowHeightRatio / MIN_ELBOW_HEIGHT_RATIO;
+        } else if (elbowHeightRatio > MAX_ELBOW_HEIGHT_RATIO) {
+            // Penalize for not going low enough
+            score *= MAX_ELBOW_HEIGHT_RATIO / elbowHeightRatio;
+        }
+
+        // You can also add more conditions to check for alignment, such as the elbow being in line with the shoulder.
+        // Add other conditions for scoring as needed based on the form
+
+        return score;
+    }
+}
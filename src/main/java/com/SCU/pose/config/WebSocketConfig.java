@@ -0,0 +1,60 @@
+package com.SCU.pose.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+// STOMP over WebSocket for live coaching. Clients connect to /coach (SockJS
+// fallback on the same path), send landmark frames to /app/coach/frame and
+// subscribe to /user/queue/coaching for updates. Only pages served from this
+// host may connect unless pose.coaching.allowed-origins lists others.
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Value("${pose.coaching.inbound-threads:8}")
+    private int inboundThreads;
+
+    @Value("${pose.coaching.outbound-threads:8}")
+    private int outboundThreads;
+
+    // Empty means same-origin only
+    @Value("${pose.coaching.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/coach").setAllowedOrigins(allowedOrigins);
+        registry.addEndpoint("/coach").setAllowedOrigins(allowedOrigins).withSockJS();
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.enableSimpleBroker("/queue");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(inboundThreads).maxPoolSize(inboundThreads);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A frame is 132 floats of JSON, well under this
+        registration.setMessageSizeLimit(16 * 1024);
+        registration.setSendBufferSizeLimit(64 * 1024);
+        registration.setSendTimeLimit(10_000);
+    }
+}
@@ -0,0 +1,24 @@
+package com.SCU.pose.controller;
+
+import com.SCU.pose.dto.CoachingUpdate;
+import com.SCU.pose.dto.LandmarkFrameMessage;
+import com.SCU.pose.service.CoachingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class CoachingController {
+
+    @Autowired
+    private CoachingService coachingService;
+
+    // Clients send to /app/coach/frame and receive updates on /user/queue/coaching
+    @MessageMapping("/coach/frame")
+    @SendToUser(destinations = "/queue/coaching", broadcast = false)
+    public CoachingUpdate frame(LandmarkFrameMessage message, @Header("simpSessionId") String sessionId) {
+        return coachingService.accept(sessionId, message);
+    }
+}
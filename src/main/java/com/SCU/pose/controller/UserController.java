@@ -1,7 +1,13 @@
 package com.SCU.pose.controller;
 
+import com.SCU.pose.dto.CursorPage;
+import com.SCU.pose.dto.UserStats;
+import com.SCU.pose.dto.UserSummary;
+import com.SCU.pose.dto.VideoSummary;
 import com.SCU.pose.model.User;
 import com.SCU.pose.service.UserService;
+import com.SCU.pose.service.UserStatsService;
+import com.SCU.pose.service.VideoQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +19,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private VideoQueryService videoQueryService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
     @PostMapping("/user")
     public User createUser(@RequestBody User user){
         return userService.createUser(user);
@@ -25,11 +37,39 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Unpaged; GET /users pages through user summaries
     @GetMapping
     public List<User> getAllUsers() {
         return userService.getAllUsers();
     }
 
+    // Keyset paging: pass the returned nextCursor as after to get the next page
+    @GetMapping("/users")
+    public CursorPage<UserSummary> listUsers(@RequestParam(value = "after", required = false) Integer after,
+                                             @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return userService.listUsers(after, limit);
+    }
+
+    // Newest first; pass the returned nextCursor as before to get the next page
+    @GetMapping("/users/{id}/videos")
+    public CursorPage<VideoSummary> listVideos(@PathVariable Integer id,
+                                               @RequestParam(value = "before", required = false) Integer before,
+                                               @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return videoQueryService.listVideos(id, before, limit);
+    }
+
+    // Totals per exercise plus daily and weekly rollups, read from the
+    // maintained statistics rather than the user's videos
+    @GetMapping("/users/{id}/stats")
+    public ResponseEntity<UserStats> getStats(@PathVariable Integer id,
+                                              @RequestParam(value = "days", defaultValue = "30") int days,
+                                              @RequestParam(value = "weeks", defaultValue = "12") int weeks) {
+        if (!userService.exists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(userStatsService.getStats(id, days, weeks));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Integer id, @RequestBody User user) {
         user.setId(id);
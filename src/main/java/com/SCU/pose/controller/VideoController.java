@@ -1,9 +1,23 @@
 package com.SCU.pose.controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.service.ChunkedUpload;
+import com.SCU.pose.service.ChunkedUploadService;
+import com.SCU.pose.service.StoredUpload;
+import com.SCU.pose.service.VideoJob;
+import com.SCU.pose.service.VideoJobService;
+import com.SCU.pose.service.VideoQueryService;
 import com.SCU.pose.service.VideoService;
+import com.SCU.pose.service.VideoUploadStore;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/video")
@@ -12,16 +26,152 @@ public class VideoController {
     @Autowired
     private VideoService videoService;
 
+    @Autowired
+    private VideoJobService videoJobService;
+
+    @Autowired
+    private VideoUploadStore videoUploadStore;
+
+    @Autowired
+    private VideoQueryService videoQueryService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    // With async=true the video is queued and the job is returned right away;
+    // poll GET /video/jobs/{id} for progress and the result
     @PostMapping("/process")
-    public String processVideo(@RequestParam("file") MultipartFile file,
-                               @RequestParam("userId") int userId) {
+    public ResponseEntity<?> processVideo(@RequestParam("file") MultipartFile file,
+                                          @RequestParam("userId") int userId,
+                                          @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        StoredUpload upload;
         try {
-            byte[] videoBytes = file.getBytes();
-            return videoService.processVideo(videoBytes, userId);
+            // Stream the upload to disk instead of reading it onto the heap
+            upload = videoUploadStore.store(file);
         } catch (IOException e) {
             // Handle the exception
-            return "Error processing video: " + e.getMessage();
+            return ResponseEntity.ok("Error processing video: " + e.getMessage());
+        }
+        return process(upload, userId, async);
+    }
+
+    // Takes ownership of the upload either way
+    private ResponseEntity<?> process(StoredUpload upload, int userId, boolean async) {
+        if (!async) {
+            try {
+                return ResponseEntity.ok(videoService.processVideo(upload, userId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        try {
+            VideoJob job = videoJobService.submit(upload, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (RejectedExecutionException e) {
+            videoUploadStore.delete(upload.getPath());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body("Too many videos queued, try again later");
         }
     }
-}
 
+    // Chunked upload of a video of size bytes; chunkSize 0 uses the server default.
+    // PUT the chunks listed in missingChunks, in any order and on parallel
+    // connections, then POST .../complete. GET the upload to resume after a
+    // dropped connection.
+    @PostMapping("/uploads")
+    public ResponseEntity<?> createUpload(@RequestParam("userId") int userId,
+                                          @RequestParam("size") long size,
+                                          @RequestParam(value = "chunkSize", defaultValue = "0") int chunkSize) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.create(userId, size, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating upload: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/uploads/{id}")
+    public ResponseEntity<ChunkedUpload> getUpload(@PathVariable String id) {
+        return chunkedUploadService.get(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The request body is the chunk's raw bytes
+    @PutMapping("/uploads/{id}/chunks/{index}")
+    public ResponseEntity<?> putChunk(@PathVariable String id, @PathVariable int index, InputStream body) {
+        Optional<ChunkedUpload> upload = chunkedUploadService.get(id);
+        if (!upload.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(upload.get(), index, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error writing chunk: " + e.getMessage());
+        }
+    }
+
+    // Processes the assembled video like POST /process
+    @PostMapping("/uploads/{id}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String id,
+                                            @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        Optional<ChunkedUpload> upload = chunkedUploadService.get(id);
+        if (!upload.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        StoredUpload stored;
+        try {
+            stored = chunkedUploadService.finish(upload.get());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error finishing upload: " + e.getMessage());
+        }
+        return process(stored, upload.get().getUserId(), async);
+    }
+
+    @DeleteMapping("/uploads/{id}")
+    public ResponseEntity<?> abortUpload(@PathVariable String id) {
+        Optional<ChunkedUpload> upload = chunkedUploadService.get(id);
+        if (!upload.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!chunkedUploadService.abort(upload.get())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A chunk is being written");
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<VideoJob> getJob(@PathVariable String id) {
+        return videoJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Stored analysis, without the landmarks
+    @GetMapping("/{id}")
+    public ResponseEntity<VideoSummary> getVideo(@PathVariable int id) {
+        return videoQueryService.getVideo(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Analyze the stored landmarks again with the current analyzers
+    @GetMapping("/{id}/analysis")
+    public ResponseEntity<ExerciseReport> reanalyze(@PathVariable int id) {
+        return videoQueryService.reanalyze(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,90 @@
+package com.SCU.pose.dto;
+
+import com.SCU.pose.model.ExerciseResult;
+
+import java.util.Map;
+
+// Live rep count and form scores sent back after each landmark frame. The
+// push-up and plank fields predate exercises; exercises has every registered
+// exercise, keyed by name.
+public class CoachingUpdate {
+
+    private Long sequence;
+    private long sentAt;
+    private int pushupCount;
+    private double pushupScore;
+    private int plankFrames;
+    private double plankScore;
+    private Map<String, ExerciseResult> exercises;
+
+    public CoachingUpdate() {
+    }
+
+    public CoachingUpdate(Long sequence, long sentAt, int pushupCount, double pushupScore, int plankFrames, double plankScore,
+                          Map<String, ExerciseResult> exercises) {
+        this.sequence = sequence;
+        this.sentAt = sentAt;
+        this.pushupCount = pushupCount;
+        this.pushupScore = pushupScore;
+        this.plankFrames = plankFrames;
+        this.plankScore = plankScore;
+        this.exercises = exercises;
+    }
+
+    // The sequence of the frame this answers, null if it had none
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(long sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public int getPushupCount() {
+        return pushupCount;
+    }
+
+    public void setPushupCount(int pushupCount) {
+        this.pushupCount = pushupCount;
+    }
+
+    public double getPushupScore() {
+        return pushupScore;
+    }
+
+    public void setPushupScore(double pushupScore) {
+        this.pushupScore = pushupScore;
+    }
+
+    public int getPlankFrames() {
+        return plankFrames;
+    }
+
+    public void setPlankFrames(int plankFrames) {
+        this.plankFrames = plankFrames;
+    }
+
+    public double getPlankScore() {
+        return plankScore;
+    }
+
+    public void setPlankScore(double plankScore) {
+        this.plankScore = plankScore;
+    }
+
+    public Map<String, ExerciseResult> getExercises() {
+        return exercises;
+    }
+
+    public void setExercises(Map<String, ExerciseResult> exercises) {
+        this.exercises = exercises;
+    }
+}
@@ -0,0 +1,54 @@
+package com.SCU.pose.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// One page of a keyset-paged listing. nextCursor is passed back as the cursor
+// parameter to get the following page, and is null on the last page.
+public class CursorPage<T> {
+
+    public static final int MAX_LIMIT = 100;
+
+    private List<T> items;
+    private Integer nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Page size within 1..MAX_LIMIT
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Page from up to limit + 1 rows read past the cursor; the extra row only
+    // tells whether there is a next page
+    public static <T> CursorPage<T> of(List<T> rows, int limit, ToIntFunction<T> key) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new CursorPage<>(items, key.applyAsInt(items.get(limit - 1)));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
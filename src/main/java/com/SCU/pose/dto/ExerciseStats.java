@@ -0,0 +1,90 @@
+package com.SCU.pose.dto;
+
+import java.time.LocalDate;
+
+// One exercise over one period: all time, a day or a week
+public class ExerciseStats {
+
+    private String exercise;
+    private String unit;
+
+    // First day of the period; null for all time
+    private LocalDate periodStart;
+    private int videos;
+
+    // Reps, or frames held for timed exercises
+    private long total;
+
+    // Mean of the videos' average scores
+    private double averageScore;
+    private double bestScore;
+
+    public ExerciseStats() {
+    }
+
+    public ExerciseStats(String exercise, String unit, LocalDate periodStart, int videos, long total, double averageScore, double bestScore) {
+        this.exercise = exercise;
+        this.unit = unit;
+        this.periodStart = periodStart;
+        this.videos = videos;
+        this.total = total;
+        this.averageScore = averageScore;
+        this.bestScore = bestScore;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public void setExercise(String exercise) {
+        this.exercise = exercise;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public int getVideos() {
+        return videos;
+    }
+
+    public void setVideos(int videos) {
+        this.videos = videos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public void setAverageScore(double averageScore) {
+        this.averageScore = averageScore;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(double bestScore) {
+        this.bestScore = bestScore;
+    }
+}
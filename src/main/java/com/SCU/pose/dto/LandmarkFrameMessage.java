@@ -0,0 +1,48 @@
+package com.SCU.pose.dto;
+
+// One frame of landmarks estimated on the client. landmarks holds the 33
+// keypoints in pose-service order as x, y, z, visibility (132 values); an
+// empty array means no person was found in the frame.
+public class LandmarkFrameMessage {
+
+    private Long sequence;
+    private long sentAt;
+    private float[] landmarks;
+
+    public LandmarkFrameMessage() {
+    }
+
+    public LandmarkFrameMessage(long sequence, long sentAt, float[] landmarks) {
+        this.sequence = sequence;
+        this.sentAt = sentAt;
+        this.landmarks = landmarks;
+    }
+
+    // Increasing per session; frames that arrive out of order are dropped.
+    // Null when the client does not number its frames: every frame is then
+    // taken in the order it arrives.
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    // Client timestamp, echoed back so the client can measure round-trip latency
+    public long getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(long sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public float[] getLandmarks() {
+        return landmarks;
+    }
+
+    public void setLandmarks(float[] landmarks) {
+        this.landmarks = landmarks;
+    }
+}
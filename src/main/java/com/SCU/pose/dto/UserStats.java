@@ -0,0 +1,61 @@
+package com.SCU.pose.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// A user's progress: all-time totals per exercise and the recent days and weeks
+public class UserStats {
+
+    private int userId;
+
+    // By exercise
+    private Map<String, ExerciseStats> totals;
+
+    // Oldest first, only days with videos
+    private List<ExerciseStats> daily;
+
+    // Weeks start on Monday; oldest first
+    private List<ExerciseStats> weekly;
+
+    public UserStats() {
+    }
+
+    public UserStats(int userId, Map<String, ExerciseStats> totals, List<ExerciseStats> daily, List<ExerciseStats> weekly) {
+        this.userId = userId;
+        this.totals = totals;
+        this.daily = daily;
+        this.weekly = weekly;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public Map<String, ExerciseStats> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Map<String, ExerciseStats> totals) {
+        this.totals = totals;
+    }
+
+    public List<ExerciseStats> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<ExerciseStats> daily) {
+        this.daily = daily;
+    }
+
+    public List<ExerciseStats> getWeekly() {
+        return weekly;
+    }
+
+    public void setWeekly(List<ExerciseStats> weekly) {
+        this.weekly = weekly;
+    }
+}
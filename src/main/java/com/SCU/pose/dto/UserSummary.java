@@ -0,0 +1,42 @@
+package com.SCU.pose.dto;
+
+// A user without the password or the video graph
+public class UserSummary {
+
+    private int id;
+    private String username;
+    private long videoCount;
+
+    public UserSummary() {
+    }
+
+    public UserSummary(int id, String username, long videoCount) {
+        this.id = id;
+        this.username = username;
+        this.videoCount = videoCount;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getVideoCount() {
+        return videoCount;
+    }
+
+    public void setVideoCount(long videoCount) {
+        this.videoCount = videoCount;
+    }
+}
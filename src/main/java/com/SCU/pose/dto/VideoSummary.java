@@ -0,0 +1,54 @@
+package com.SCU.pose.dto;
+
+import com.SCU.pose.model.ExerciseReport;
+
+// A video's analysis without its landmarks
+public class VideoSummary {
+
+    private int id;
+    private int userId;
+    private String contentHash;
+    private ExerciseReport analysis;
+
+    public VideoSummary() {
+    }
+
+    public VideoSummary(int id, int userId, String contentHash, ExerciseReport analysis) {
+        this.id = id;
+        this.userId = userId;
+        this.contentHash = contentHash;
+        this.analysis = analysis;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public ExerciseReport getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(ExerciseReport analysis) {
+        this.analysis = analysis;
+    }
+}
@@ -0,0 +1,248 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import com.SCU.pose.model.PoseSequence;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs an ONNX pose landmark model on the CPU inside the JVM with OpenCV DNN,
+// instead of sending frames to the pose service (pose.inference.backend=dnn).
+//
+// The model takes NCHW RGB input scaled to [0, 1] at input-size x input-size
+// and returns, per frame, at least 33 landmarks of output-stride values in
+// pose-service order, BlazePose style: x, y and z in input pixels, then the
+// visibility as a logit. Frames are stretched to the input size, so x and y
+// divided by the input size are already normalized to the original frame.
+// A frame whose mean visibility is below min-visibility has no person.
+//
+// A Net is not thread-safe, so each worker thread loads its own. Workers take
+// whatever frames are waiting, up to batch-size, and run them through the net
+// as one blob; models exported with a fixed batch of 1 need batch-size=1.
+@Component
+@ConditionalOnProperty(name = "pose.inference.backend", havingValue = "dnn")
+public class DnnPoseEstimator implements PoseEstimator {
+
+    static {
+        // Load the OpenCV native library bundled with org.openpnp:opencv
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${pose.dnn.model:}")
+    private String modelPath;
+
+    @Value("${pose.dnn.input-size:256}")
+    private int inputSize;
+
+    @Value("${pose.dnn.output-stride:5}")
+    private int outputStride;
+
+    @Value("${pose.dnn.threads:2}")
+    private int threads;
+
+    @Value("${pose.dnn.batch-size:1}")
+    private int batchSize;
+
+    @Value("${pose.dnn.batch-max-wait-ms:5}")
+    private long batchMaxWaitMs;
+
+    @Value("${pose.dnn.min-visibility:0.5}")
+    private double minVisibility;
+
+    private BlockingQueue<PendingFrame> pending;
+    private ExecutorService workers;
+    private volatile boolean closed;
+
+    private static class PendingFrame {
+        private final byte[] pixels;
+        private final CompletableFuture<float[]> result = new CompletableFuture<>();
+
+        PendingFrame(byte[] pixels) {
+            this.pixels = pixels;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (modelPath == null || !Files.isRegularFile(Paths.get(modelPath))) {
+            throw new IllegalArgumentException("pose.dnn.model must point to an ONNX pose model, got '" + modelPath + "'");
+        }
+        pending = new ArrayBlockingQueue<>(threads * batchSize * 2);
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pose-dnn-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            // Loaded here so a broken model fails startup
+            Net net = Dnn.readNetFromONNX(modelPath);
+            workers.submit(() -> work(net));
+        }
+    }
+
+    // Raw BGR pixels of the frame stretched to the model's input size
+    @Override
+    public byte[] prepare(Mat frame) {
+        Mat resized = new Mat();
+        try {
+            Imgproc.resize(frame, resized, new Size(inputSize, inputSize), 0, 0, Imgproc.INTER_AREA);
+            byte[] pixels = new byte[inputSize * inputSize * 3];
+            resized.get(0, 0, pixels);
+            return pixels;
+        } finally {
+            resized.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<float[]> estimateAsync(byte[] prepared) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Pose estimator is shut down");
+        }
+        PendingFrame frame = new PendingFrame(prepared);
+        pending.put(frame);
+        // A frame queued while shutdown() drained the queue would never be taken
+        if (closed) {
+            failPending();
+        }
+        return frame.result;
+    }
+
+    private void work(Net net) {
+        List<PendingFrame> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(pending.take());
+                fillBatch(batch);
+                runBatch(net, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (PendingFrame frame : batch) {
+                frame.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Add frames that are already waiting, or arrive within batch-max-wait-ms
+    private void fillBatch(List<PendingFrame> batch) throws InterruptedException {
+        pending.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchMaxWaitMs);
+        while (batch.size() < batchSize) {
+            PendingFrame frame = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (frame == null) {
+                return;
+            }
+            batch.add(frame);
+            pending.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void runBatch(Net net, List<PendingFrame> batch) {
+        List<Mat> images = new ArrayList<>(batch.size());
+        Mat blob = null;
+        Mat output = null;
+        try {
+            for (PendingFrame frame : batch) {
+                Mat image = new Mat(inputSize, inputSize, CvType.CV_8UC3);
+                image.put(0, 0, frame.pixels);
+                images.add(image);
+            }
+            long start = System.nanoTime();
+            blob = Dnn.blobFromImages(images, 1 / 255.0, new Size(inputSize, inputSize), new Scalar(0, 0, 0), true, false);
+            net.setInput(blob);
+            output = net.forward();
+            pipelineMetrics.record(Stage.INFERENCE, System.nanoTime() - start);
+
+            float[] values = new float[(int) output.total()];
+            output.get(new int[output.dims()], values);
+            int perFrame = values.length / batch.size();
+            if (perFrame < PoseSequence.KEYPOINTS * outputStride) {
+                throw new IllegalArgumentException("Pose model returned " + perFrame + " values per frame, expected at least "
+                        + PoseSequence.KEYPOINTS * outputStride);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(toLandmarks(values, i * perFrame));
+            }
+        } catch (Throwable e) {
+            // Whatever goes wrong, the batch's callers must not wait forever
+            pipelineMetrics.inferenceError(e);
+            for (PendingFrame frame : batch) {
+                frame.result.completeExceptionally(e);
+            }
+        } finally {
+            for (Mat image : images) {
+                image.release();
+            }
+            if (blob != null) {
+                blob.release();
+            }
+            if (output != null) {
+                output.release();
+            }
+        }
+    }
+
+    private float[] toLandmarks(float[] values, int offset) {
+        float[] landmarks = new float[PoseSequence.FRAME_STRIDE];
+        double visibilitySum = 0;
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            int source = offset + keypoint * outputStride;
+            int base = keypoint * PoseSequence.COMPONENTS;
+            float visibility = (float) (1 / (1 + Math.exp(-values[source + 3])));
+            landmarks[base + PoseSequence.X] = values[source] / inputSize;
+            landmarks[base + PoseSequence.Y] = values[source + 1] / inputSize;
+            landmarks[base + PoseSequence.Z] = values[source + 2] / inputSize;
+            landmarks[base + PoseSequence.VISIBILITY] = visibility;
+            visibilitySum += visibility;
+        }
+        if (visibilitySum / PoseSequence.KEYPOINTS < minVisibility) {
+            return LandmarkDecoder.emptyFrame();
+        }
+        return landmarks;
+    }
+
+    // Frames still queued fail; batches already running finish normally
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        workers.shutdownNow();
+        failPending();
+    }
+
+    private void failPending() {
+        List<PendingFrame> unprocessed = new ArrayList<>();
+        pending.drainTo(unprocessed);
+        for (PendingFrame frame : unprocessed) {
+            frame.result.completeExceptionally(new IllegalStateException("Pose estimator shut down"));
+        }
+    }
+}
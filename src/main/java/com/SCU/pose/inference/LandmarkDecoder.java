@@ -0,0 +1,146 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.model.PoseSequence;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Decodes pose-service responses with a streaming parser straight into
+// per-frame float arrays in PoseSequence layout (33 keypoints of x, y, z,
+// visibility), without building maps, boxed numbers or Coordinate objects.
+//
+// A frame is a JSON array of landmark objects. An empty array means no person
+// was found and decodes to a frame of NaN. Anything else must have exactly 33
+// landmarks, each with numeric x, y, z and visibility; other fields are
+// ignored. Responses that do not follow this are rejected with an
+// IllegalArgumentException instead of being mistaken for an empty frame.
+public final class LandmarkDecoder {
+
+    // Thread-safe and shared; parsers recycle their buffers per thread
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int ALL_COMPONENTS = (1 << PoseSequence.COMPONENTS) - 1;
+
+    private LandmarkDecoder() {
+    }
+
+    // Body of /upload: one frame
+    public static float[] decodeFrame(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            float[] frame = readFrame(parser);
+            expectEnd(parser);
+            return frame;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed pose service response: " + e.getMessage(), e);
+        }
+    }
+
+    // Body of /upload_batch: an array with one frame per submitted image
+    public static List<float[]> decodeBatch(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            List<float[]> frames = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                expect(parser, token, JsonToken.START_ARRAY);
+                frames.add(readFrame(parser));
+            }
+            expectEnd(parser);
+            return frames;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed pose service response: " + e.getMessage(), e);
+        }
+    }
+
+    // A frame without landmarks, as for an empty response
+    public static float[] emptyFrame() {
+        float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        Arrays.fill(frame, Float.NaN);
+        return frame;
+    }
+
+    // Reads the landmarks of one frame; the parser is on its START_ARRAY
+    private static float[] readFrame(JsonParser parser) throws IOException {
+        float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        int keypoint = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(parser, token, JsonToken.START_OBJECT);
+            if (keypoint == PoseSequence.KEYPOINTS) {
+                throw malformed(parser, "more than " + PoseSequence.KEYPOINTS + " landmarks in a frame");
+            }
+            readLandmark(parser, frame, keypoint * PoseSequence.COMPONENTS);
+            keypoint++;
+        }
+        if (keypoint == 0) {
+            Arrays.fill(frame, Float.NaN);
+        } else if (keypoint < PoseSequence.KEYPOINTS) {
+            throw malformed(parser, "expected " + PoseSequence.KEYPOINTS + " landmarks in a frame, got " + keypoint);
+        }
+        return frame;
+    }
+
+    // Reads one landmark object; the parser is on its START_OBJECT
+    private static void readLandmark(JsonParser parser, float[] frame, int base) throws IOException {
+        int seen = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            expect(parser, token, JsonToken.FIELD_NAME);
+            int component = component(parser.getCurrentName());
+            JsonToken value = parser.nextToken();
+            if (component < 0) {
+                parser.skipChildren();
+                continue;
+            }
+            if (value != JsonToken.VALUE_NUMBER_FLOAT && value != JsonToken.VALUE_NUMBER_INT) {
+                throw malformed(parser, "landmark field " + parser.getCurrentName() + " is not a number");
+            }
+            // Not getFloatValue(): Jackson parses a double and narrows it, which
+            // rounds twice and can be one ulp off the nearest float
+            frame[base + component] = Float.parseFloat(parser.getText());
+            seen |= 1 << component;
+        }
+        if (seen != ALL_COMPONENTS) {
+            throw malformed(parser, "landmark without x, y, z and visibility");
+        }
+    }
+
+    private static int component(String name) {
+        switch (name) {
+            case "x":
+                return PoseSequence.X;
+            case "y":
+                return PoseSequence.Y;
+            case "z":
+                return PoseSequence.Z;
+            case "visibility":
+                return PoseSequence.VISIBILITY;
+            default:
+                return -1;
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw malformed(parser, "expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static void expectEnd(JsonParser parser) throws IOException {
+        JsonToken trailing = parser.nextToken();
+        if (trailing != null) {
+            throw malformed(parser, "unexpected " + trailing + " after the response");
+        }
+    }
+
+    private static IllegalArgumentException malformed(JsonParser parser, String problem) {
+        return new IllegalArgumentException("Malformed pose service response: " + problem
+                + " at " + parser.getCurrentLocation().getCharOffset());
+    }
+}
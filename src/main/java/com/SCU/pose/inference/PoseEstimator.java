@@ -0,0 +1,28 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.metrics.VideoTrace;
+import org.opencv.core.Mat;
+
+import java.util.concurrent.CompletableFuture;
+
+// A backend that finds the pose landmarks in key frames. The frame pipeline
+// calls prepare() on its encode stage and estimateAsync() on its inference
+// stage, so getting the next frame ready overlaps with inference.
+//
+// Results are frames of landmarks in PoseSequence layout; a frame without a
+// detected person is all NaN.
+public interface PoseEstimator {
+
+    // Input for estimateAsync() made from a decoded BGR frame. Must not keep a
+    // reference to the Mat, which is released afterwards.
+    byte[] prepare(Mat frame);
+
+    // May block while the backend is saturated, which pushes back on the pipeline
+    CompletableFuture<float[]> estimateAsync(byte[] prepared) throws InterruptedException;
+
+    // Same, for a frame of the video the trace belongs to. Backends that time
+    // steps of their own, such as parsing the response, record them there too.
+    default CompletableFuture<float[]> estimateAsync(byte[] prepared, VideoTrace trace) throws InterruptedException {
+        return estimateAsync(prepared);
+    }
+}
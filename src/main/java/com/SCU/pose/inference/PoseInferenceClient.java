@@ -0,0 +1,356 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import com.SCU.pose.metrics.VideoTrace;
+import com.SCU.pose.pipeline.FrameEncoder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.opencv.core.Mat;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Client for the pose estimation service. One RestTemplate backed by a pool of
+// keep-alive connections is shared by all requests, and up to maxInFlight
+// requests are sent concurrently.
+//
+// With pose.inference.batch-size > 1 frames are grouped into batches and sent
+// to the batch endpoint in one request. A batch is sent as soon as it is full,
+// or once its first frame has waited batch-max-wait-ms.
+//
+// Results are frames of landmarks in PoseSequence layout (see LandmarkDecoder);
+// a frame without a detected person is all NaN. This is the default
+// PoseEstimator (pose.inference.backend=http).
+@Component
+@ConditionalOnProperty(name = "pose.inference.backend", havingValue = "http", matchIfMissing = true)
+public class PoseInferenceClient implements PoseEstimator {
+
+    @Autowired
+    private FrameEncoder frameEncoder;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${pose.inference.url:http://127.0.0.1:5000/upload}")
+    private String endpoint;
+
+    @Value("${pose.inference.batch-url:http://127.0.0.1:5000/upload_batch}")
+    private String batchEndpoint;
+
+    @Value("${pose.inference.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${pose.inference.batch-size:1}")
+    private int batchSize;
+
+    @Value("${pose.inference.batch-max-wait-ms:20}")
+    private long batchMaxWaitMs;
+
+    @Value("${pose.inference.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${pose.inference.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ExecutorService requestExecutor;
+    private ScheduledExecutorService flushScheduler;
+    private Semaphore inFlight;
+
+    // Frames submitted whose landmarks have not arrived yet
+    private final AtomicInteger framesInFlight = new AtomicInteger();
+
+    // Frames waiting for the current batch to fill up
+    private final Object batchLock = new Object();
+    private List<PendingFrame> pendingBatch = new ArrayList<>();
+    private ScheduledFuture<?> flushTimer;
+
+    private static class PendingFrame {
+        private final byte[] frame;
+        private final VideoTrace trace;
+        private final CompletableFuture<float[]> result = new CompletableFuture<>();
+
+        PendingFrame(byte[] frame, VideoTrace trace) {
+            this.frame = frame;
+            this.trace = trace;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxInFlight);
+        connectionManager.setDefaultMaxPerRoute(maxInFlight);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        restTemplate = new RestTemplate(requestFactory);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        requestExecutor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "pose-inference-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pose-inference-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        inFlight = new Semaphore(maxInFlight);
+
+        pipelineMetrics.gauge("pose.inference.requests.in.flight", "Requests sent to the pose service and not answered yet",
+                () -> maxInFlight - inFlight.availablePermits());
+        pipelineMetrics.gauge("pose.inference.frames.in.flight", "Frames submitted for inference and not answered yet",
+                framesInFlight::get);
+    }
+
+    // Frames go to the pose service encoded by FrameEncoder
+    @Override
+    public byte[] prepare(Mat frame) {
+        return frameEncoder.encode(frame);
+    }
+
+    @Override
+    public CompletableFuture<float[]> estimateAsync(byte[] prepared) throws InterruptedException {
+        return detectAsync(prepared, null);
+    }
+
+    @Override
+    public CompletableFuture<float[]> estimateAsync(byte[] prepared, VideoTrace trace) throws InterruptedException {
+        return detectAsync(prepared, trace);
+    }
+
+    public CompletableFuture<float[]> detectAsync(byte[] frame) throws InterruptedException {
+        return detectAsync(frame, null);
+    }
+
+    // Send a frame without waiting for the answer. Blocks while maxInFlight
+    // requests are already outstanding, which pushes back on the pipeline.
+    // Parse time is also recorded in the trace, if there is one.
+    public CompletableFuture<float[]> detectAsync(byte[] frame, VideoTrace trace) throws InterruptedException {
+        if (batchSize <= 1) {
+            inFlight.acquire();
+            framesInFlight.incrementAndGet();
+            try {
+                return CompletableFuture.supplyAsync(() -> detect(frame, trace), requestExecutor)
+                        .whenComplete((landmarks, error) -> {
+                            framesInFlight.decrementAndGet();
+                            inFlight.release();
+                        });
+            } catch (RuntimeException e) {
+                framesInFlight.decrementAndGet();
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        PendingFrame pending = new PendingFrame(frame, trace);
+        framesInFlight.incrementAndGet();
+        pending.result.whenComplete((landmarks, error) -> framesInFlight.decrementAndGet());
+        List<PendingFrame> fullBatch = null;
+        synchronized (batchLock) {
+            pendingBatch.add(pending);
+            if (pendingBatch.size() >= batchSize) {
+                fullBatch = takeBatch();
+            } else if (pendingBatch.size() == 1) {
+                flushTimer = flushScheduler.schedule(this::flushExpiredBatch, batchMaxWaitMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatchBatch(fullBatch);
+        }
+        return pending.result;
+    }
+
+    // Must be called while holding batchLock
+    private List<PendingFrame> takeBatch() {
+        List<PendingFrame> batch = pendingBatch;
+        pendingBatch = new ArrayList<>(batchSize);
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+            flushTimer = null;
+        }
+        return batch;
+    }
+
+    private void flushExpiredBatch() {
+        List<PendingFrame> batch;
+        synchronized (batchLock) {
+            if (pendingBatch.isEmpty()) {
+                return;
+            }
+            batch = takeBatch();
+        }
+        try {
+            dispatchBatch(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failBatch(batch, e);
+        }
+    }
+
+    private void dispatchBatch(List<PendingFrame> batch) throws InterruptedException {
+        List<byte[]> frames = new ArrayList<>(batch.size());
+        List<VideoTrace> traces = new ArrayList<>(batch.size());
+        for (PendingFrame pending : batch) {
+            frames.add(pending.frame);
+            traces.add(pending.trace);
+        }
+
+        inFlight.acquire();
+        try {
+            CompletableFuture.supplyAsync(() -> detectBatch(frames, traces), requestExecutor)
+                    .whenComplete((results, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            failBatch(batch, error);
+                            return;
+                        }
+                        // Hand each frame its own landmarks
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).result.complete(results.get(i));
+                        }
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            failBatch(batch, e);
+        }
+    }
+
+    private void failBatch(List<PendingFrame> batch, Throwable error) {
+        for (PendingFrame pending : batch) {
+            pending.result.completeExceptionally(error);
+        }
+    }
+
+    public float[] detect(byte[] frame) {
+        return detect(frame, null);
+    }
+
+    private float[] detect(byte[] frame, VideoTrace trace) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(frameEncoder.getMediaType());
+
+        HttpEntity<byte[]> requestEntity = new HttpEntity<>(frame, headers);
+        try {
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.postForEntity(endpoint, requestEntity, String.class);
+            pipelineMetrics.record(Stage.INFERENCE, System.nanoTime() - start);
+
+            // Check if response is OK
+            if (response.getStatusCode() != HttpStatus.OK) {
+                // Handle error response
+                return LandmarkDecoder.emptyFrame();
+            }
+
+            // Decode the landmarks straight into a frame array
+            start = System.nanoTime();
+            float[] landmarks = parseLandmarks(response.getBody());
+            pipelineMetrics.record(Stage.PARSE, System.nanoTime() - start, trace);
+            return landmarks;
+        } catch (RuntimeException e) {
+            pipelineMetrics.inferenceError(e);
+            throw e;
+        }
+    }
+
+    public List<float[]> detectBatch(List<byte[]> frames) {
+        return detectBatch(frames, Collections.nCopies(frames.size(), null));
+    }
+
+    // Send a batch of frames in one multipart request. The service answers
+    // with one landmark list per frame, in the order the frames were sent.
+    // Frames of a batch may come from different videos; each frame's trace
+    // gets an even share of the batch's parse time.
+    private List<float[]> detectBatch(List<byte[]> frames, List<VideoTrace> traces) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        for (int i = 0; i < frames.size(); i++) {
+            String filename = "frame" + i + "." + frameEncoder.getMediaType().getSubtype();
+            HttpHeaders partHeaders = new HttpHeaders();
+            partHeaders.setContentType(frameEncoder.getMediaType());
+            body.add("frames", new HttpEntity<>(new ByteArrayResource(frames.get(i)) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+            }, partHeaders));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+        try {
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.postForEntity(batchEndpoint, requestEntity, String.class);
+            pipelineMetrics.record(Stage.INFERENCE, System.nanoTime() - start);
+
+            if (response.getStatusCode() != HttpStatus.OK) {
+                throw new RuntimeException("Pose service returned " + response.getStatusCode() + " for a batch of " + frames.size() + " frames");
+            }
+
+            start = System.nanoTime();
+            List<float[]> results = parseBatch(response.getBody());
+            long parseNanos = System.nanoTime() - start;
+            pipelineMetrics.record(Stage.PARSE, parseNanos);
+            for (VideoTrace trace : traces) {
+                if (trace != null) {
+                    trace.record(Stage.PARSE, parseNanos / frames.size());
+                }
+            }
+            if (results.size() != frames.size()) {
+                throw new RuntimeException("Pose service returned " + results.size() + " results for a batch of " + frames.size() + " frames");
+            }
+            return results;
+        } catch (RuntimeException e) {
+            pipelineMetrics.inferenceError(e);
+            throw e;
+        }
+    }
+
+    // Throws IllegalArgumentException for a malformed response
+    public float[] parseLandmarks(String json) {
+        return LandmarkDecoder.decodeFrame(json);
+    }
+
+    public List<float[]> parseBatch(String json) {
+        return LandmarkDecoder.decodeBatch(json);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flushScheduler.shutdownNow();
+        requestExecutor.shutdownNow();
+        httpClient.close();
+    }
+}
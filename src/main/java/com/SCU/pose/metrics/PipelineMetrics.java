@@ -0,0 +1,104 @@
+package com.SCU.pose.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Timers for every stage of video processing (pose.stage.duration, tagged by
+// stage), inference error counts, and the traces of the most recent videos.
+// Components that own queues or in-flight work register their own gauges
+// and counters through gauge() and counter().
+@Component
+public class PipelineMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+    @Value("${pose.metrics.trace-history:100}")
+    private int traceHistory = 100;
+
+    private final Deque<VideoTrace> recentTraces = new ArrayDeque<>();
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("pose.stage.duration")
+                    .description("Time spent in one step of video processing")
+                    .tag("stage", stage.getTag())
+                    .register(registry));
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Record in the stage timer and, if there is one, the video's trace
+    public void record(Stage stage, long nanos, VideoTrace trace) {
+        record(stage, nanos);
+        if (trace != null) {
+            trace.record(stage, nanos);
+        }
+    }
+
+    public void inferenceError(Throwable error) {
+        Counter.builder("pose.inference.errors")
+                .description("Pose service requests that failed or returned an unusable response")
+                .tag("exception", error.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value, String... tags) {
+        Gauge.builder(name, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    // Counter read from a monotonically increasing value the caller maintains
+    public void counter(String name, String description, Supplier<Number> value, String... tags) {
+        FunctionCounter.builder(name, value, supplier -> supplier.get().doubleValue())
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    public VideoTrace startTrace(String id) {
+        return new VideoTrace(id);
+    }
+
+    public void finishTrace(VideoTrace trace) {
+        trace.finish();
+        synchronized (recentTraces) {
+            recentTraces.addFirst(trace);
+            while (recentTraces.size() > traceHistory) {
+                recentTraces.removeLast();
+            }
+        }
+    }
+
+    // Most recent first
+    public List<VideoTrace> getRecentTraces() {
+        synchronized (recentTraces) {
+            return new ArrayList<>(recentTraces);
+        }
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+}
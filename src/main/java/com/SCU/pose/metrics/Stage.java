@@ -0,0 +1,22 @@
+package com.SCU.pose.metrics;
+
+// Steps a video goes through, as tagged on pose.stage.duration
+public enum Stage {
+    UPLOAD_WRITE("upload_write"),
+    DECODE("decode"),
+    ENCODE("encode"),
+    INFERENCE("inference"),
+    PARSE("parse"),
+    ANALYSIS("analysis"),
+    PERSIST("persist");
+
+    private final String tag;
+
+    Stage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,91 @@
+package com.SCU.pose.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Where the time of one processVideo call went: per stage, how many spans
+// were recorded, their total and their longest duration. Stages run on
+// several pipeline threads at once, so totals can add up to more than the
+// wall-clock duration.
+public class VideoTrace {
+
+    private final String id;
+    private final long startedAt;
+    private volatile long finishedAt;
+    private final AtomicLongArray counts = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray maxNanos = new AtomicLongArray(Stage.values().length);
+
+    public VideoTrace(String id) {
+        this.id = id;
+        this.startedAt = System.currentTimeMillis();
+    }
+
+    public void record(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        counts.incrementAndGet(i);
+        totalNanos.addAndGet(i, nanos);
+        long max;
+        while (nanos > (max = maxNanos.get(i)) && !maxNanos.compareAndSet(i, max, nanos)) {
+            // Retry until the larger value is in
+        }
+    }
+
+    void finish() {
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    // 0 while the video is still being processed
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getDurationMs() {
+        return (finishedAt == 0 ? System.currentTimeMillis() : finishedAt) - startedAt;
+    }
+
+    public Map<String, StageSpan> getStages() {
+        Map<String, StageSpan> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            int i = stage.ordinal();
+            if (counts.get(i) > 0) {
+                stages.put(stage.getTag(), new StageSpan(counts.get(i), totalNanos.get(i), maxNanos.get(i)));
+            }
+        }
+        return stages;
+    }
+
+    public static class StageSpan {
+        private final long count;
+        private final double totalMs;
+        private final double maxMs;
+
+        StageSpan(long count, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.totalMs = totalNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            this.maxMs = maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalMs() {
+            return totalMs;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+    }
+}
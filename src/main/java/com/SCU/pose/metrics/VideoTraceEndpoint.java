@@ -0,0 +1,33 @@
+package com.SCU.pose.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// /actuator/videotraces: per-stage timings of the most recently processed videos
+@Component
+@Endpoint(id = "videotraces")
+public class VideoTraceEndpoint {
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @ReadOperation
+    public List<VideoTrace> traces() {
+        return pipelineMetrics.getRecentTraces();
+    }
+
+    @ReadOperation
+    public VideoTrace trace(@Selector String id) {
+        for (VideoTrace trace : pipelineMetrics.getRecentTraces()) {
+            if (trace.getId().equals(id)) {
+                return trace;
+            }
+        }
+        return null;
+    }
+}
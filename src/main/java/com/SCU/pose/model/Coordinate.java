@@ -1,5 +1,7 @@
 package com.SCU.pose.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 
 @Entity
@@ -7,7 +9,8 @@ import javax.persistence.*;
 public class Coordinate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coordinate_seq")
+    @SequenceGenerator(name = "coordinate_seq", sequenceName = "coordinate_seq", allocationSize = 50)
     private int id;
 
     private String keyPointName; // To identify the key point (e.g., "Nose", "Left Eye", etc.)
@@ -16,8 +19,9 @@ public class Coordinate {
     private double z;
     private double visibility;
 
-    // Assuming there's a back-reference to the Image entity
-    @ManyToOne
+    // Back-reference to the Image entity; owns the image_id foreign key
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "image_id")
     private Image image;
 
@@ -0,0 +1,38 @@
+package com.SCU.pose.model;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// A one-off data migration that has run to completion, such as filling a new
+// table from existing rows. Checked at startup so the migration is not run,
+// or even locked for, again.
+@Entity
+@Table(name = "data_migration")
+public class DataMigration {
+
+    // Built user_exercise_stats from the stored videos (UserStatsService.backfill)
+    public static final String USER_STATS_BACKFILL = "user-stats-backfill";
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "completed_at", nullable = false)
+    private Instant completedAt;
+
+    public DataMigration() {
+    }
+
+    public DataMigration(String name, Instant completedAt) {
+        this.name = name;
+        this.completedAt = completedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
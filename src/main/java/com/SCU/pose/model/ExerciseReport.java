@@ -0,0 +1,44 @@
+package com.SCU.pose.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Results of every registered exercise for one video, keyed by exercise name
+// in registration order
+public class ExerciseReport {
+
+    private int framesAnalyzed;
+    private Map<String, ExerciseResult> exercises = new LinkedHashMap<>();
+
+    public ExerciseReport() {
+    }
+
+    public ExerciseReport(int framesAnalyzed) {
+        this.framesAnalyzed = framesAnalyzed;
+    }
+
+    // Key frames that had landmarks
+    public int getFramesAnalyzed() {
+        return framesAnalyzed;
+    }
+
+    public void setFramesAnalyzed(int framesAnalyzed) {
+        this.framesAnalyzed = framesAnalyzed;
+    }
+
+    public Map<String, ExerciseResult> getExercises() {
+        return exercises;
+    }
+
+    public void setExercises(Map<String, ExerciseResult> exercises) {
+        this.exercises = exercises;
+    }
+
+    public ExerciseResult getExercise(String exercise) {
+        return exercises.get(exercise);
+    }
+
+    public void addExercise(ExerciseResult result) {
+        exercises.put(result.getExercise(), result);
+    }
+}
@@ -0,0 +1,52 @@
+package com.SCU.pose.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Stores an ExerciseReport as JSON in the analysis column. Rows written
+// before reports existed hold plain "Pushup count: N" text; those are read
+// back as a report with only the push-up count.
+@Converter
+public class ExerciseReportConverter implements AttributeConverter<ExerciseReport, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern LEGACY_PUSHUP_COUNT = Pattern.compile("Pushup count: (\\d+)");
+
+    @Override
+    public String convertToDatabaseColumn(ExerciseReport report) {
+        if (report == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(report);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize exercise report", e);
+        }
+    }
+
+    @Override
+    public ExerciseReport convertToEntityAttribute(String analysis) {
+        if (analysis == null) {
+            return null;
+        }
+        if (analysis.startsWith("{")) {
+            try {
+                return MAPPER.readValue(analysis, ExerciseReport.class);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot parse exercise report", e);
+            }
+        }
+        ExerciseReport report = new ExerciseReport();
+        Matcher matcher = LEGACY_PUSHUP_COUNT.matcher(analysis);
+        if (matcher.find()) {
+            report.addExercise(new ExerciseResult("pushup", ExerciseResult.REPS, Integer.parseInt(matcher.group(1)), 0));
+        }
+        return report;
+    }
+}
@@ -0,0 +1,56 @@
+package com.SCU.pose.model;
+
+// Outcome of one exercise over a video. count is in the given unit: reps for
+// exercises that are counted, frames for exercises that are held.
+public class ExerciseResult {
+
+    public static final String REPS = "reps";
+    public static final String FRAMES = "frames";
+
+    private String exercise;
+    private String unit;
+    private int count;
+    private double averageScore;
+
+    public ExerciseResult() {
+    }
+
+    public ExerciseResult(String exercise, String unit, int count, double averageScore) {
+        this.exercise = exercise;
+        this.unit = unit;
+        this.count = count;
+        this.averageScore = averageScore;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public void setExercise(String exercise) {
+        this.exercise = exercise;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public void setAverageScore(double averageScore) {
+        this.averageScore = averageScore;
+    }
+}
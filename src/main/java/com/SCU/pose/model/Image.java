@@ -1,17 +1,26 @@
 package com.SCU.pose.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.util.*;
 @Entity
 @Table(name = "Image")
 public class Image {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @SequenceGenerator(name = "image_seq", sequenceName = "image_seq", allocationSize = 50)
     private int id;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JoinColumn(name = "image_id") // Foreign key in Coordinate table
+    // Owning side of the video_id foreign key, so it is written with the insert
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "video_id")
+    private Video video;
+
+    @OneToMany(mappedBy = "image", cascade = CascadeType.ALL, fetch = FetchType.LAZY) // image_id foreign key in Coordinate table
+    @OrderBy("id") // Keypoints were inserted in pose-service order
     private List<Coordinate> coordinates;
 
     // Constructors
@@ -19,7 +28,7 @@ public class Image {
     }
 
     public Image(List<Coordinate> coordinates) {
-        this.coordinates = coordinates;
+        setCoordinates(coordinates);
     }
 
     // Getters and setters
@@ -37,6 +46,19 @@ public class Image {
 
     public void setCoordinates(List<Coordinate> coordinates) {
         this.coordinates = coordinates;
+        if (coordinates != null) {
+            for (Coordinate coordinate : coordinates) {
+                coordinate.setImage(this);
+            }
+        }
+    }
+
+    public Video getVideo() {
+        return video;
+    }
+
+    public void setVideo(Video video) {
+        this.video = video;
     }
 
 }
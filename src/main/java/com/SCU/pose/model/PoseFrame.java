@@ -0,0 +1,108 @@
+package com.SCU.pose.model;
+
+// Read-only view of one frame's landmarks inside a flat float array. A single
+// instance is moved from frame to frame, so walking a sequence allocates
+// nothing. Keypoint indices follow the pose-service (MediaPipe) order.
+public final class PoseFrame {
+
+    public static final int NOSE = 0;
+    public static final int LEFT_EYE_INNER = 1;
+    public static final int LEFT_EYE = 2;
+    public static final int LEFT_EYE_OUTER = 3;
+    public static final int RIGHT_EYE_INNER = 4;
+    public static final int RIGHT_EYE = 5;
+    public static final int RIGHT_EYE_OUTER = 6;
+    public static final int LEFT_EAR = 7;
+    public static final int RIGHT_EAR = 8;
+    public static final int MOUTH_LEFT = 9;
+    public static final int MOUTH_RIGHT = 10;
+    public static final int LEFT_SHOULDER = 11;
+    public static final int RIGHT_SHOULDER = 12;
+    public static final int LEFT_ELBOW = 13;
+    public static final int RIGHT_ELBOW = 14;
+    public static final int LEFT_WRIST = 15;
+    public static final int RIGHT_WRIST = 16;
+    public static final int LEFT_PINKY = 17;
+    public static final int RIGHT_PINKY = 18;
+    public static final int LEFT_INDEX = 19;
+    public static final int RIGHT_INDEX = 20;
+    public static final int LEFT_THUMB = 21;
+    public static final int RIGHT_THUMB = 22;
+    public static final int LEFT_HIP = 23;
+    public static final int RIGHT_HIP = 24;
+    public static final int LEFT_KNEE = 25;
+    public static final int RIGHT_KNEE = 26;
+    public static final int LEFT_ANKLE = 27;
+    public static final int RIGHT_ANKLE = 28;
+    public static final int LEFT_HEEL = 29;
+    public static final int RIGHT_HEEL = 30;
+    public static final int LEFT_FOOT_INDEX = 31;
+    public static final int RIGHT_FOOT_INDEX = 32;
+
+    // Labels stored in Coordinate.keyPointName, by index
+    public static final String[] KEYPOINT_NAMES = {
+            "Nose",
+            "Left Eye Inner",
+            "Left Eye",
+            "Left Eye Outer",
+            "Right Eye Inner",
+            "Right Eye",
+            "Right Eye Outer",
+            "Left Ear",
+            "Right Ear",
+            "Mouth Left",
+            "Mouth Right",
+            "Left Shoulder",
+            "Right Shoulder",
+            "Left Elbow",
+            "Right Elbow",
+            "Left Wrist",
+            "Right Wrist",
+            "Left Pinky",
+            "Right Pinky",
+            "Left Index",
+            "Right Index",
+            "Left Thumb",
+            "Right Thumb",
+            "Left Hip",
+            "Right Hip",
+            "Left Knee",
+            "Right Knee",
+            "Left Ankle",
+            "Right Ankle",
+            "Left Heel",
+            "Right Heel",
+            "Left Foot Index",
+            "Right Foot Index"
+    };
+
+    private float[] values;
+    private int offset;
+
+    // Point this view at the frame starting at offset in values
+    public PoseFrame at(float[] values, int offset) {
+        this.values = values;
+        this.offset = offset;
+        return this;
+    }
+
+    public boolean hasLandmarks() {
+        return !Float.isNaN(values[offset]);
+    }
+
+    public float x(int keypoint) {
+        return values[offset + keypoint * PoseSequence.COMPONENTS + PoseSequence.X];
+    }
+
+    public float y(int keypoint) {
+        return values[offset + keypoint * PoseSequence.COMPONENTS + PoseSequence.Y];
+    }
+
+    public float z(int keypoint) {
+        return values[offset + keypoint * PoseSequence.COMPONENTS + PoseSequence.Z];
+    }
+
+    public float visibility(int keypoint) {
+        return values[offset + keypoint * PoseSequence.COMPONENTS + PoseSequence.VISIBILITY];
+    }
+}
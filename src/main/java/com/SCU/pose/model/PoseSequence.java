@@ -0,0 +1,111 @@
+package com.SCU.pose.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Landmarks of a whole video in one flat float array: for every frame, the 33
+// keypoints in pose-service order, each as x, y, z, visibility. Frames for
+// which the pose service returned nothing are kept as NaN so frame positions
+// stay aligned with the video.
+public class PoseSequence {
+
+    public static final int KEYPOINTS = 33;
+    public static final int COMPONENTS = 4;
+    public static final int FRAME_STRIDE = KEYPOINTS * COMPONENTS;
+
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int Z = 2;
+    public static final int VISIBILITY = 3;
+
+    private float[] values;
+    private int frameCount;
+
+    public PoseSequence() {
+        this(64);
+    }
+
+    public PoseSequence(int expectedFrames) {
+        values = new float[Math.max(1, expectedFrames) * FRAME_STRIDE];
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    // Backing array; only the first frameCount * FRAME_STRIDE values are used
+    public float[] getValues() {
+        return values;
+    }
+
+    public float get(int frame, int keypoint, int component) {
+        return values[frame * FRAME_STRIDE + keypoint * COMPONENTS + component];
+    }
+
+    // Move the given view to a frame and return it
+    public PoseFrame frame(int frame, PoseFrame view) {
+        return view.at(values, frame * FRAME_STRIDE);
+    }
+
+    public boolean hasLandmarks(int frame) {
+        return !Float.isNaN(values[frame * FRAME_STRIDE]);
+    }
+
+    public void addFrame(List<Coordinate> coordinates) {
+        int offset = appendFrame();
+        if (coordinates == null || coordinates.size() < KEYPOINTS) {
+            Arrays.fill(values, offset, offset + FRAME_STRIDE, Float.NaN);
+            return;
+        }
+        for (int keypoint = 0; keypoint < KEYPOINTS; keypoint++) {
+            Coordinate coordinate = coordinates.get(keypoint);
+            int base = offset + keypoint * COMPONENTS;
+            values[base + X] = (float) coordinate.getX();
+            values[base + Y] = (float) coordinate.getY();
+            values[base + Z] = (float) coordinate.getZ();
+            values[base + VISIBILITY] = (float) coordinate.getVisibility();
+        }
+    }
+
+    // Copy one frame of FRAME_STRIDE values
+    public void addFrame(float[] frame, int offset) {
+        System.arraycopy(frame, offset, values, appendFrame(), FRAME_STRIDE);
+    }
+
+    // Build a sequence from Image/Coordinate rows stored in legacy mode
+    public static PoseSequence fromImages(List<Image> images) {
+        PoseSequence sequence = new PoseSequence(images == null ? 0 : images.size());
+        if (images != null) {
+            for (Image image : images) {
+                sequence.addFrame(image.getCoordinates());
+            }
+        }
+        return sequence;
+    }
+
+    // Coordinate view of one frame for code that still works on entities
+    public List<Coordinate> toCoordinates(int frame) {
+        List<Coordinate> coordinates = new ArrayList<>(KEYPOINTS);
+        if (!hasLandmarks(frame)) {
+            return coordinates;
+        }
+        for (int keypoint = 0; keypoint < KEYPOINTS; keypoint++) {
+            coordinates.add(new Coordinate(PoseFrame.KEYPOINT_NAMES[keypoint],
+                    get(frame, keypoint, X),
+                    get(frame, keypoint, Y),
+                    get(frame, keypoint, Z),
+                    get(frame, keypoint, VISIBILITY)));
+        }
+        return coordinates;
+    }
+
+    private int appendFrame() {
+        int offset = frameCount * FRAME_STRIDE;
+        if (offset + FRAME_STRIDE > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, offset + FRAME_STRIDE));
+        }
+        frameCount++;
+        return offset;
+    }
+}
@@ -0,0 +1,107 @@
+package com.SCU.pose.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+// Packs a PoseSequence into one binary column.
+//
+// Every value is quantized to 1/10000 of a normalized unit and stored as the
+// difference from the same keypoint component in the previous frame, written
+// as a zigzag varint. Landmarks move little between key frames, so most values
+// take one or two bytes instead of a full Coordinate row.
+//
+// Layout: version byte, varint frame count, then per frame a presence byte
+// followed (if present) by FRAME_STRIDE varint deltas.
+@Converter
+public class PoseSequenceConverter implements AttributeConverter<PoseSequence, byte[]> {
+
+    private static final int VERSION = 1;
+    private static final float SCALE = 10000f;
+
+    @Override
+    public byte[] convertToDatabaseColumn(PoseSequence sequence) {
+        if (sequence == null) {
+            return null;
+        }
+        int frameCount = sequence.getFrameCount();
+        float[] values = sequence.getValues();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + frameCount * PoseSequence.FRAME_STRIDE * 2);
+        out.write(VERSION);
+        writeVarint(out, frameCount);
+
+        int[] previous = new int[PoseSequence.FRAME_STRIDE];
+        for (int frame = 0; frame < frameCount; frame++) {
+            if (!sequence.hasLandmarks(frame)) {
+                out.write(0);
+                continue;
+            }
+            out.write(1);
+            int offset = frame * PoseSequence.FRAME_STRIDE;
+            for (int i = 0; i < PoseSequence.FRAME_STRIDE; i++) {
+                int quantized = Math.round(values[offset + i] * SCALE);
+                writeVarint(out, zigzag(quantized - previous[i]));
+                previous[i] = quantized;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public PoseSequence convertToEntityAttribute(byte[] packed) {
+        if (packed == null) {
+            return null;
+        }
+        int[] position = {0};
+        int version = packed[position[0]++];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported packed landmark version: " + version);
+        }
+        int frameCount = readVarint(packed, position);
+
+        PoseSequence sequence = new PoseSequence(frameCount);
+        int[] previous = new int[PoseSequence.FRAME_STRIDE];
+        float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        for (int f = 0; f < frameCount; f++) {
+            if (packed[position[0]++] == 0) {
+                Arrays.fill(frame, Float.NaN);
+            } else {
+                for (int i = 0; i < PoseSequence.FRAME_STRIDE; i++) {
+                    previous[i] += unzigzag(readVarint(packed, position));
+                    frame[i] = previous[i] / SCALE;
+                }
+            }
+            sequence.addFrame(frame, 0);
+        }
+        return sequence;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] in, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[position[0]++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -1,5 +1,7 @@
 package com.SCU.pose.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.util.List;
 
@@ -16,6 +18,9 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Not serialized: it would pull in every video with all its landmarks.
+    // GET /users/{id}/videos pages through summaries instead.
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Video> videos; // List of videos associated with the user
 
@@ -0,0 +1,151 @@
+package com.SCU.pose.model;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+// Running totals of one exercise for one user over one period: all time, a day,
+// or a week starting on Monday. Rows are only written by the upsert in
+// UserExerciseStatsRepository, one per exercise and period for every analyzed
+// video, so reading a user's progress never touches their videos.
+@Entity
+@Table(name = "user_exercise_stats", uniqueConstraints = @UniqueConstraint(name = "uk_user_exercise_stats",
+        columnNames = {"user_id", "exercise", "period", "period_start"}))
+public class UserExerciseStats {
+
+    public static final String ALL = "all";
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+
+    // Period start of the all-time row
+    public static final LocalDate ALL_TIME = LocalDate.of(1970, 1, 1);
+
+    // Inserted by native SQL only, so nothing is gained from a pooled sequence
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(nullable = false, length = 32)
+    private String exercise;
+
+    @Column(nullable = false, length = 8)
+    private String period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    // ExerciseResult.REPS or ExerciseResult.FRAMES
+    @Column(length = 16)
+    private String unit;
+
+    // Videos in which the exercise was done
+    private int videos;
+
+    // Reps or frames over all those videos
+    private long total;
+
+    // Sum of the videos' average scores, for the average over videos
+    @Column(name = "score_sum")
+    private double scoreSum;
+
+    @Column(name = "best_score")
+    private double bestScore;
+
+    public UserExerciseStats() {
+    }
+
+    public UserExerciseStats(int userId, String exercise, String period, LocalDate periodStart, String unit,
+                             int videos, long total, double scoreSum, double bestScore) {
+        this.userId = userId;
+        this.exercise = exercise;
+        this.period = period;
+        this.periodStart = periodStart;
+        this.unit = unit;
+        this.videos = videos;
+        this.total = total;
+        this.scoreSum = scoreSum;
+        this.bestScore = bestScore;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public void setExercise(String exercise) {
+        this.exercise = exercise;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public int getVideos() {
+        return videos;
+    }
+
+    public void setVideos(int videos) {
+        this.videos = videos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public double getScoreSum() {
+        return scoreSum;
+    }
+
+    public void setScoreSum(double scoreSum) {
+        this.scoreSum = scoreSum;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(double bestScore) {
+        this.bestScore = bestScore;
+    }
+}
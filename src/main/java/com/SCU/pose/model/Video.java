@@ -4,30 +4,43 @@ import javax.persistence.*;
 import java.util.List;
 
 @Entity
-@Table(name = "Video")
+@Table(name = "Video", indexes = @Index(name = "idx_video_user_content_hash", columnList = "user_id, content_hash"))
 public class Video {
 
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round-trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "video_seq")
+    @SequenceGenerator(name = "video_seq", sequenceName = "video_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne
     @JoinColumn(name = "user_id") // Foreign key in Video table
     private User user; // Reference back to the User entity
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JoinColumn(name = "video_id") // Foreign key in Image table
+    @OneToMany(mappedBy = "video", cascade = CascadeType.ALL, fetch = FetchType.LAZY) // video_id foreign key in Image table
+    @OrderBy("id") // Frames were inserted in video order
     private List<Image> images;
 
+    // Exercise results as JSON
+    @Convert(converter = ExerciseReportConverter.class)
     @Column(length = 5000) // Assuming analysis can be a long text
-    private String analysis;
+    private ExerciseReport analysis;
+
+    // SHA-256 of the uploaded file, used to recognize re-uploads of the same video
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // All landmarks of the video packed into one column; images stay empty in this mode
+    @Convert(converter = PoseSequenceConverter.class)
+    @Column(name = "landmarks")
+    private PoseSequence landmarks;
 
     // Constructors
     public Video() {
     }
 
-    public Video(List<Image> images, String analysis) {
-        this.images = images;
+    public Video(List<Image> images, ExerciseReport analysis) {
+        setImages(images);
         this.analysis = analysis;
     }
 
@@ -46,16 +59,37 @@ public class Video {
 
     public void setImages(List<Image> images) {
         this.images = images;
+        if (images != null) {
+            for (Image image : images) {
+                image.setVideo(this);
+            }
+        }
     }
 
-    public String getAnalysis() {
+    public ExerciseReport getAnalysis() {
         return analysis;
     }
 
-    public void setAnalysis(String analysis) {
+    public void setAnalysis(ExerciseReport analysis) {
         this.analysis = analysis;
     }
 
+    public PoseSequence getLandmarks() {
+        return landmarks;
+    }
+
+    public void setLandmarks(PoseSequence landmarks) {
+        this.landmarks = landmarks;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public User getUser() {
         return user;
     }
@@ -0,0 +1,18 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Mat;
+
+// Samples every n-th frame regardless of content
+public class FixedIntervalSampler implements KeyFrameSampler {
+
+    private final int interval;
+
+    public FixedIntervalSampler(int interval) {
+        this.interval = interval;
+    }
+
+    @Override
+    public boolean isKeyFrame(int frameIndex, Mat frame) {
+        return frameIndex % interval == 0;
+    }
+}
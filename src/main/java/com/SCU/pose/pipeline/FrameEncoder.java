@@ -0,0 +1,127 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+// Prepares key frames for the pose service: shrinks them to fit within
+// max-width x max-height and encodes them as JPEG, PNG, or uncompressed BMP.
+// The pose service returns normalized coordinates, so downscaling does not
+// change the coordinate space the analysis works in.
+@Component
+public class FrameEncoder {
+
+    static {
+        // Load the OpenCV native library bundled with org.openpnp:opencv
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // jpg, png, or bmp (uncompressed pixels behind a small header)
+    @Value("${pose.encoding.format:jpg}")
+    private String format;
+
+    // 0 keeps the source size
+    @Value("${pose.encoding.max-width:640}")
+    private int maxWidth;
+
+    @Value("${pose.encoding.max-height:640}")
+    private int maxHeight;
+
+    @Value("${pose.encoding.jpeg-quality:80}")
+    private int jpegQuality;
+
+    @Value("${pose.encoding.png-compression:1}")
+    private int pngCompression;
+
+    private String extension;
+    private MatOfInt encodeParams;
+    private MediaType mediaType;
+
+    public FrameEncoder() {
+    }
+
+    public FrameEncoder(String format, int maxWidth, int maxHeight, int jpegQuality, int pngCompression) {
+        this.format = format;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.jpegQuality = jpegQuality;
+        this.pngCompression = pngCompression;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        switch (format) {
+            case "jpg":
+                extension = ".jpg";
+                encodeParams = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, jpegQuality);
+                mediaType = MediaType.IMAGE_JPEG;
+                break;
+            case "png":
+                extension = ".png";
+                encodeParams = new MatOfInt(Imgcodecs.IMWRITE_PNG_COMPRESSION, pngCompression);
+                mediaType = MediaType.IMAGE_PNG;
+                break;
+            case "bmp":
+                extension = ".bmp";
+                encodeParams = new MatOfInt();
+                mediaType = MediaType.parseMediaType("image/bmp");
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported frame encoding: " + format);
+        }
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public byte[] encode(Mat frame) {
+        Mat prepared = resize(frame);
+        MatOfByte buffer = new MatOfByte();
+        try {
+            // Encode the frame to a byte array
+            Imgcodecs.imencode(extension, prepared, buffer, encodeParams);
+            return buffer.toArray();
+        } finally {
+            buffer.release();
+            if (prepared != frame) {
+                prepared.release();
+            }
+        }
+    }
+
+    // Returns the frame itself when it already fits
+    Mat resize(Mat frame) {
+        double scale = 1.0;
+        if (maxWidth > 0 && frame.cols() > maxWidth) {
+            scale = (double) maxWidth / frame.cols();
+        }
+        if (maxHeight > 0 && frame.rows() * scale > maxHeight) {
+            scale = (double) maxHeight / frame.rows();
+        }
+        if (scale >= 1.0) {
+            return frame;
+        }
+
+        Mat resized = new Mat();
+        Size size = new Size(Math.max(1, Math.round(frame.cols() * scale)), Math.max(1, Math.round(frame.rows() * scale)));
+        Imgproc.resize(frame, resized, size, 0, 0, Imgproc.INTER_AREA);
+        return resized;
+    }
+
+    @Override
+    public String toString() {
+        return format + " " + (maxWidth > 0 ? maxWidth : "full") + "x" + (maxHeight > 0 ? maxHeight : "full")
+                + ("jpg".equals(format) ? " q" + jpegQuality : "")
+                + ("png".equals(format) ? " c" + pngCompression : "");
+    }
+}
@@ -0,0 +1,318 @@
+package com.SCU.pose.pipeline;
+
+import com.SCU.pose.inference.PoseEstimator;
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import com.SCU.pose.metrics.VideoTrace;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Streams a video through decode -> encode -> infer -> analyze.
+// Every stage runs on its own thread and the stages are connected by bounded
+// queues, so inference starts on the first key frame while decoding is still
+// going, and at most a few frames per stage are held in memory at any time.
+// The infer stage only submits requests; several frames can be in flight at
+// once and the analyzer waits for them in frame order. Key frames are cropped
+// to the athlete before inference (see RoiTracker).
+@Component
+public class FramePipeline {
+
+    @Value("${pose.pipeline.queue-capacity:8}")
+    private int queueCapacity;
+
+    @Value("${pose.pipeline.inference-timeout-ms:60000}")
+    private long inferenceTimeoutMs;
+
+    @Value("${pose.roi.enabled:true}")
+    private boolean roiEnabled;
+
+    @Value("${pose.roi.padding:0.25}")
+    private double roiPadding;
+
+    @Value("${pose.roi.lag-padding:0.01}")
+    private double roiLagPadding;
+
+    @Value("${pose.roi.min-visibility:0.5}")
+    private double roiMinVisibility;
+
+    @Value("${pose.roi.min-size:0.2}")
+    private double roiMinSize;
+
+    @Autowired
+    private KeyFrameExtractor keyFrameExtractor;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final AtomicLong roiCropped = new AtomicLong();
+    private final AtomicLong roiFull = new AtomicLong();
+
+    // Videos being processed, for the queue depth gauges and shutdown
+    private final Set<Run> activeRuns = ConcurrentHashMap.newKeySet();
+
+    // The queues and stage threads of one video
+    private static class Run {
+        private final BlockingQueue<PipelineFrame> decoded;
+        private final BlockingQueue<PipelineFrame> encoded;
+        private final BlockingQueue<PipelineFrame> inferred;
+        private final ExecutorService stageExecutor;
+
+        Run(int capacity, ExecutorService stageExecutor) {
+            decoded = new ArrayBlockingQueue<>(capacity);
+            encoded = new ArrayBlockingQueue<>(capacity);
+            inferred = new ArrayBlockingQueue<>(capacity);
+            this.stageExecutor = stageExecutor;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        pipelineMetrics.gauge("pose.pipeline.active", "Videos in the frame pipeline", activeRuns::size);
+        queueGauge("decoded", run -> run.decoded);
+        queueGauge("encoded", run -> run.encoded);
+        queueGauge("inferred", run -> run.inferred);
+        pipelineMetrics.counter("pose.roi.frames", "Key frames sent to inference cropped to the tracked athlete or whole",
+                roiCropped::get, "region", "crop");
+        pipelineMetrics.counter("pose.roi.frames", "Key frames sent to inference cropped to the tracked athlete or whole",
+                roiFull::get, "region", "full");
+    }
+
+    // Frames waiting in one queue, summed over all videos in the pipeline
+    private void queueGauge(String queue, Function<Run, BlockingQueue<PipelineFrame>> select) {
+        pipelineMetrics.gauge("pose.pipeline.queue.depth", "Key frames waiting between pipeline stages", () -> {
+            int depth = 0;
+            for (Run run : activeRuns) {
+                depth += select.apply(run).size();
+            }
+            return depth;
+        }, "queue", queue);
+    }
+
+    // Run the pipeline over a video file. Frames reach the analyzer on the
+    // calling thread, in video order. Decode, encode and inference times are
+    // recorded in the trace. Returns the number of key frames analyzed.
+    // However the run ends, its stage threads have stopped and every frame
+    // that was not analyzed has been released when it returns.
+    public int run(String videoFilePath, PoseEstimator estimator, VideoTrace trace, Consumer<PipelineFrame> analyzer) {
+        Run run = new Run(queueCapacity, WorkerPool.start(3, "frame-pipeline", threadCounter));
+        BlockingQueue<PipelineFrame> decoded = run.decoded;
+        BlockingQueue<PipelineFrame> encoded = run.encoded;
+        BlockingQueue<PipelineFrame> inferred = run.inferred;
+        RoiTracker roiTracker = roiEnabled ? new RoiTracker(roiPadding, roiLagPadding, roiMinVisibility, roiMinSize) : null;
+
+        List<Future<?>> stages = new ArrayList<>();
+        activeRuns.add(run);
+        try {
+            stages.add(run.stageExecutor.submit(() -> {
+                // Decode time of a key frame covers reading and sampling the
+                // frames since the previous one, not waiting for queue space
+                long[] decodeStart = {System.nanoTime()};
+                keyFrameExtractor.extractKeyFrames(videoFilePath, (frameIndex, mat) -> {
+                    pipelineMetrics.record(Stage.DECODE, System.nanoTime() - decodeStart[0], trace);
+                    handOver(new PipelineFrame(frameIndex, mat), decoded);
+                    decodeStart[0] = System.nanoTime();
+                });
+                decoded.put(PipelineFrame.END);
+                return null;
+            }));
+            stages.add(runStage(run, decoded, encoded, frame -> encode(frame, estimator, roiTracker, trace)));
+            stages.add(runStage(run, encoded, inferred, frame -> infer(frame, estimator, roiTracker, trace)));
+
+            int analyzed = 0;
+            while (true) {
+                PipelineFrame frame = inferred.poll(100, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    checkStages(stages);
+                    continue;
+                }
+                if (frame == PipelineFrame.END) {
+                    return analyzed;
+                }
+                frame.setLandmarks(awaitLandmarks(frame));
+                analyzer.accept(frame);
+                analyzed++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Frame pipeline interrupted", e);
+        } finally {
+            // Stages only hand frames on while they run; once they have
+            // stopped, whatever is left in the queues can be released
+            WorkerPool.stop(run.stageExecutor);
+            drain(decoded);
+            drain(encoded);
+            drain(inferred);
+            activeRuns.remove(run);
+        }
+    }
+
+    // Bounded, so a backend that never answers fails the video instead of
+    // holding the request thread and the stage threads forever
+    private float[] awaitLandmarks(PipelineFrame frame) throws InterruptedException {
+        try {
+            return frame.getPendingLandmarks().get(inferenceTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("No landmarks for frame " + frame.getFrameIndex() + " after "
+                    + inferenceTimeoutMs + " ms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Inference failed for frame " + frame.getFrameIndex(), cause);
+        } finally {
+            // Cancels the request if it is still running after a timeout or an interrupt
+            frame.discard();
+        }
+    }
+
+    // With the tracker on, frames are cropped to the region around the athlete
+    // found in earlier frames, padded for how far ahead of those frames this
+    // one is.
+    private void encode(PipelineFrame frame, PoseEstimator estimator, RoiTracker roiTracker, VideoTrace trace) {
+        long start = System.nanoTime();
+        Mat mat = frame.getMat();
+        RoiTracker.Region region = roiTracker != null ? roiTracker.current(frame.getFrameIndex()) : null;
+        Rect rect = region != null ? region.toRect(mat.cols(), mat.rows()) : null;
+        Mat input = rect != null ? mat.submat(rect) : mat;
+        try {
+            frame.setEncoded(estimator.prepare(input));
+            if (rect != null) {
+                frame.setRegion(RoiTracker.Region.of(rect, mat.cols(), mat.rows()));
+                roiCropped.incrementAndGet();
+            } else if (roiTracker != null) {
+                roiFull.incrementAndGet();
+            }
+        } finally {
+            if (input != mat) {
+                input.release();
+            }
+            frame.releaseMat();
+            pipelineMetrics.record(Stage.ENCODE, System.nanoTime() - start, trace);
+        }
+    }
+
+    private void infer(PipelineFrame frame, PoseEstimator estimator, RoiTracker roiTracker, VideoTrace trace)
+            throws InterruptedException {
+        frame.setPendingLandmarks(submit(frame, estimator, roiTracker, trace));
+        frame.setEncoded(null);
+    }
+
+    // The estimator records inference time globally and its own steps, such as
+    // parsing, in the trace; the video's trace gets the inference time from
+    // submission (including waiting for a free slot) to the result.
+    // Landmarks of a cropped frame are mapped back to the whole frame before
+    // anything else (the tracker, the analyzer) sees them.
+    private CompletableFuture<float[]> submit(PipelineFrame frame, PoseEstimator estimator, RoiTracker roiTracker,
+                                              VideoTrace trace) throws InterruptedException {
+        long start = System.nanoTime();
+        CompletableFuture<float[]> pending = estimator.estimateAsync(frame.getEncoded(), trace);
+        if (roiTracker != null) {
+            RoiTracker.Region region = frame.getRegion();
+            int frameIndex = frame.getFrameIndex();
+            pending = pending.thenApply(landmarks -> {
+                if (region != null) {
+                    region.toFullFrame(landmarks);
+                }
+                roiTracker.update(frameIndex, landmarks);
+                return landmarks;
+            });
+        }
+        if (trace != null) {
+            pending.whenComplete((landmarks, error) -> trace.record(Stage.INFERENCE, System.nanoTime() - start));
+        }
+        return pending;
+    }
+
+    private interface StageWork {
+        void process(PipelineFrame frame) throws Exception;
+    }
+
+    private Future<?> runStage(Run run, BlockingQueue<PipelineFrame> in, BlockingQueue<PipelineFrame> out,
+                               StageWork work) {
+        return run.stageExecutor.submit(() -> {
+            while (true) {
+                PipelineFrame frame = in.take();
+                if (frame == PipelineFrame.END) {
+                    out.put(frame);
+                    return null;
+                }
+                try {
+                    work.process(frame);
+                } catch (Exception e) {
+                    frame.discard();
+                    throw e;
+                }
+                handOver(frame, out);
+            }
+        });
+    }
+
+    // A frame a stage holds when it is stopped is in no queue; the stage
+    // releases it itself
+    private static void handOver(PipelineFrame frame, BlockingQueue<PipelineFrame> out) throws InterruptedException {
+        try {
+            out.put(frame);
+        } catch (InterruptedException e) {
+            frame.discard();
+            throw e;
+        }
+    }
+
+    // Surface the first stage failure on the calling thread
+    private void checkStages(List<Future<?>> stages) throws InterruptedException {
+        for (Future<?> stage : stages) {
+            if (stage.isDone()) {
+                try {
+                    stage.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new RuntimeException("Frame pipeline failed", cause);
+                }
+            }
+        }
+    }
+
+    // Release frames still queued after a failure: their native buffers and
+    // any inference they are waiting for
+    private void drain(BlockingQueue<PipelineFrame> queue) {
+        PipelineFrame frame;
+        while ((frame = queue.poll()) != null) {
+            frame.discard();
+        }
+    }
+
+    // Stops the videos still in the pipeline; their run() calls fail
+    @PreDestroy
+    public void shutdown() {
+        for (Run run : activeRuns) {
+            run.stageExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes a video and picks the key frames sent on to inference.
+//
+// In parallel decode mode a long video is split into segments of
+// segment-frames frames. Each worker thread opens its own VideoCapture, seeks
+// to the first frame of a segment and decodes it, and key frames are handed
+// out segment by segment, so the handler still sees them in frame order.
+// Every segment gets a fresh sampler: fixed-interval sampling picks exactly
+// the frames sequential decoding would, and adaptive sampling always keeps
+// the first frame of a segment. Either way the key frames depend on the
+// segment size only, never on the number of threads or their timing.
+@Component
+public class KeyFrameExtractor {
+
+    private static final String PARALLEL = "parallel";
+
+    static {
+        // Load the OpenCV native library bundled with org.openpnp:opencv
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // "fixed" samples every key-frame-interval frames, "adaptive" follows motion
+    @Value("${pose.sampling.mode:adaptive}")
+    private String samplingMode;
+
+    @Value("${pose.sampling.key-frame-interval:3}")
+    private int keyFrameInterval;
+
+    @Value("${pose.sampling.min-stride:2}")
+    private int minStride;
+
+    @Value("${pose.sampling.max-stride:12}")
+    private int maxStride;
+
+    @Value("${pose.sampling.motion-threshold:2.0}")
+    private double motionThreshold;
+
+    // "sequential" decodes with one VideoCapture, "parallel" decodes segments on several threads
+    @Value("${pose.decode.mode:sequential}")
+    private String decodeMode;
+
+    // 0 uses all available cores
+    @Value("${pose.decode.threads:0}")
+    private int decodeThreads;
+
+    @Value("${pose.decode.segment-frames:64}")
+    private int segmentFrames;
+
+    // Key frames a worker may buffer for a segment that is not being handed out yet
+    @Value("${pose.decode.segment-buffer:16}")
+    private int segmentBuffer;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    // Worker pools of the videos being decoded in parallel, for shutdown
+    private final Set<ExecutorService> activeDecoders = ConcurrentHashMap.newKeySet();
+
+    // A key frame decoded ahead, waiting for its segment's turn
+    private static class DecodedFrame {
+        static final DecodedFrame END = new DecodedFrame(-1, null);
+
+        private final int frameIndex;
+        private final Mat mat;
+
+        DecodedFrame(int frameIndex, Mat mat) {
+            this.frameIndex = frameIndex;
+            this.mat = mat;
+        }
+    }
+
+    // Receives key frames as they are decoded. The handler takes ownership of
+    // the Mat and is responsible for releasing it.
+    public interface KeyFrameHandler {
+        void onKeyFrame(int frameIndex, Mat frame) throws InterruptedException;
+    }
+
+    public KeyFrameSampler newSampler() {
+        if ("fixed".equals(samplingMode)) {
+            return new FixedIntervalSampler(keyFrameInterval);
+        }
+        return new MotionAdaptiveSampler(minStride, maxStride, motionThreshold);
+    }
+
+    // Decode the video and hand every key frame to the handler, one at a time,
+    // in frame order. Memory use does not depend on video length: sequential
+    // decoding buffers nothing, parallel decoding at most segment-buffer key
+    // frames per thread. Returns the number of key frames.
+    public int extractKeyFrames(String videoFilePath, KeyFrameHandler handler) throws InterruptedException {
+        if (PARALLEL.equals(decodeMode)) {
+            int frameCount = seekableFrameCount(videoFilePath);
+            // Short videos, and files the backend cannot seek in exactly, are decoded in one go
+            if (frameCount >= 2 * segmentFrames) {
+                int threads = decodeThreads > 0 ? decodeThreads : Runtime.getRuntime().availableProcessors();
+                return extractParallel(videoFilePath, frameCount, threads, handler);
+            }
+        }
+        return extractSequential(videoFilePath, handler);
+    }
+
+    private int extractSequential(String videoFilePath, KeyFrameHandler handler) throws InterruptedException {
+        VideoCapture videoCapture = new VideoCapture(videoFilePath);
+
+        if (!videoCapture.isOpened()) {
+            // Handle error when opening the video file
+            throw new RuntimeException("Failed to open video file: " + videoFilePath);
+        }
+
+        KeyFrameSampler sampler = newSampler();
+        Mat frame = newFrame();
+        int frameCount = 0;
+        int keyFrameCount = 0;
+        try {
+            // Read video frames
+            while (videoCapture.read(frame)) {
+                if (sampler.isKeyFrame(frameCount, frame)) {
+                    handler.onKeyFrame(frameCount, frame);
+                    keyFrameCount++;
+                    // The handler now owns the previous buffer
+                    frame = newFrame();
+                }
+                frameCount++;
+            }
+        } finally {
+            // Release resources
+            sampler.release();
+            frame.release();
+            videoCapture.release();
+        }
+        return keyFrameCount;
+    }
+
+    // Frame count from the container, or -1 when seeking to a frame does not
+    // land exactly on it
+    private int seekableFrameCount(String videoFilePath) {
+        VideoCapture videoCapture = new VideoCapture(videoFilePath);
+        try {
+            if (!videoCapture.isOpened()) {
+                throw new RuntimeException("Failed to open video file: " + videoFilePath);
+            }
+            int frameCount = (int) videoCapture.get(Videoio.CAP_PROP_FRAME_COUNT);
+            if (frameCount < 2 * segmentFrames) {
+                return -1;
+            }
+            videoCapture.set(Videoio.CAP_PROP_POS_FRAMES, segmentFrames);
+            return (int) videoCapture.get(Videoio.CAP_PROP_POS_FRAMES) == segmentFrames ? frameCount : -1;
+        } finally {
+            videoCapture.release();
+        }
+    }
+
+    private int extractParallel(String videoFilePath, int frameCount, int threads, KeyFrameHandler handler)
+            throws InterruptedException {
+        int segmentCount = (frameCount + segmentFrames - 1) / segmentFrames;
+        threads = Math.min(threads, segmentCount);
+        List<BlockingQueue<DecodedFrame>> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(new ArrayBlockingQueue<>(segmentBuffer + 1));
+        }
+        // Workers claim segments in order, at most threads segments ahead of
+        // the one being handed out
+        Semaphore window = new Semaphore(threads);
+        AtomicInteger nextSegment = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(threads);
+        ExecutorService decodeExecutor = WorkerPool.start(threads, "frame-decoder", threadCounter);
+        activeDecoders.add(decodeExecutor);
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers.add(decodeExecutor.submit(() -> decodeSegments(videoFilePath, segments, nextSegment, window)));
+            }
+            int keyFrameCount = 0;
+            for (BlockingQueue<DecodedFrame> segment : segments) {
+                while (true) {
+                    DecodedFrame frame = segment.poll(100, TimeUnit.MILLISECONDS);
+                    if (frame == null) {
+                        checkWorkers(workers);
+                        continue;
+                    }
+                    if (frame == DecodedFrame.END) {
+                        break;
+                    }
+                    handler.onKeyFrame(frame.frameIndex, frame.mat);
+                    keyFrameCount++;
+                }
+                window.release();
+            }
+            return keyFrameCount;
+        } finally {
+            // A worker inside VideoCapture.read only sees the interrupt once
+            // the read returns; wait for it, so that nothing is queued after
+            // the key frames decoded ahead are released
+            WorkerPool.stop(decodeExecutor);
+            activeDecoders.remove(decodeExecutor);
+            for (BlockingQueue<DecodedFrame> segment : segments) {
+                DecodedFrame frame;
+                while ((frame = segment.poll()) != null) {
+                    if (frame.mat != null) {
+                        frame.mat.release();
+                    }
+                }
+            }
+        }
+    }
+
+    // One worker: decodes whole segments with its own VideoCapture until none are left
+    private Void decodeSegments(String videoFilePath, List<BlockingQueue<DecodedFrame>> segments,
+                                AtomicInteger nextSegment, Semaphore window) throws InterruptedException {
+        VideoCapture videoCapture = new VideoCapture(videoFilePath);
+        Mat frame = newFrame();
+        try {
+            if (!videoCapture.isOpened()) {
+                throw new RuntimeException("Failed to open video file: " + videoFilePath);
+            }
+            while (true) {
+                window.acquire();
+                int segment = nextSegment.getAndIncrement();
+                if (segment >= segments.size()) {
+                    return null;
+                }
+                BlockingQueue<DecodedFrame> queue = segments.get(segment);
+                int start = segment * segmentFrames;
+                // The last segment runs to the end of the stream, whatever the container's frame count said
+                int end = segment == segments.size() - 1 ? Integer.MAX_VALUE : start + segmentFrames;
+                // A segment past the real end of the stream stays empty
+                boolean found = seek(videoCapture, start, videoFilePath);
+                KeyFrameSampler sampler = newSampler();
+                try {
+                    for (int frameIndex = start; found && frameIndex < end && videoCapture.read(frame); frameIndex++) {
+                        if (sampler.isKeyFrame(frameIndex, frame)) {
+                            queue.put(new DecodedFrame(frameIndex, frame));
+                            // The queue now owns the previous buffer
+                            frame = newFrame();
+                        }
+                    }
+                } finally {
+                    sampler.release();
+                }
+                queue.put(DecodedFrame.END);
+            }
+        } finally {
+            frame.release();
+            videoCapture.release();
+        }
+    }
+
+    // Some backends land on the key frame before the target; decode forward
+    // from there. Returns false when the stream ends before the frame.
+    private static boolean seek(VideoCapture videoCapture, int frameIndex, String videoFilePath) {
+        videoCapture.set(Videoio.CAP_PROP_POS_FRAMES, frameIndex);
+        int position = (int) videoCapture.get(Videoio.CAP_PROP_POS_FRAMES);
+        while (position < frameIndex) {
+            if (!videoCapture.grab()) {
+                return false;
+            }
+            position++;
+        }
+        if (position != frameIndex) {
+            throw new RuntimeException("Cannot seek to frame " + frameIndex + " of " + videoFilePath);
+        }
+        return true;
+    }
+
+    // Surface the first worker failure on the calling thread
+    private static void checkWorkers(List<Future<?>> workers) throws InterruptedException {
+        for (Future<?> worker : workers) {
+            if (worker.isDone()) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new RuntimeException("Frame decoding failed", cause);
+                }
+            }
+        }
+    }
+
+    // Buffer for the next decoded frame; tests track them to check that none is leaked
+    Mat newFrame() {
+        return new Mat();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService decoders : activeDecoders) {
+            decoders.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Mat;
+
+// Decides which decoded frames are sent on to inference. Samplers keep state
+// across frames, so a new one is created for every video.
+public interface KeyFrameSampler {
+
+    boolean isKeyFrame(int frameIndex, Mat frame);
+
+    // Free any native buffers held by the sampler
+    default void release() {
+    }
+}
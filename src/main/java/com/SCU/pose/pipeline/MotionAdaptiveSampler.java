@@ -0,0 +1,76 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+// Samples densely while the athlete moves and sparsely while the scene is still.
+// Each frame is shrunk to a small grayscale thumbnail and compared with the
+// thumbnail of the last key frame. A frame becomes a key frame once the mean
+// absolute pixel difference reaches the motion threshold, but never sooner
+// than minStride and never later than maxStride frames after the previous one.
+public class MotionAdaptiveSampler implements KeyFrameSampler {
+
+    private static final int THUMBNAIL_WIDTH = 64;
+
+    private final int minStride;
+    private final int maxStride;
+    private final double motionThreshold;
+
+    private final Mat small = new Mat();
+    private final Mat difference = new Mat();
+    private Mat thumbnail = new Mat();
+    private Mat lastKeyThumbnail = new Mat();
+    private int lastKeyFrameIndex = -1;
+
+    public MotionAdaptiveSampler(int minStride, int maxStride, double motionThreshold) {
+        this.minStride = Math.max(1, minStride);
+        this.maxStride = Math.max(this.minStride, maxStride);
+        this.motionThreshold = motionThreshold;
+    }
+
+    @Override
+    public boolean isKeyFrame(int frameIndex, Mat frame) {
+        int stride = frameIndex - lastKeyFrameIndex;
+        if (lastKeyFrameIndex >= 0 && stride < minStride) {
+            return false;
+        }
+
+        makeThumbnail(frame);
+        if (lastKeyFrameIndex < 0 || stride >= maxStride || motion() >= motionThreshold) {
+            // Keep this thumbnail as the reference and reuse the old buffer next time
+            Mat previous = lastKeyThumbnail;
+            lastKeyThumbnail = thumbnail;
+            thumbnail = previous;
+            lastKeyFrameIndex = frameIndex;
+            return true;
+        }
+        return false;
+    }
+
+    // Mean absolute difference (0-255) between the current and the last key thumbnail
+    private double motion() {
+        Core.absdiff(thumbnail, lastKeyThumbnail, difference);
+        return Core.mean(difference).val[0];
+    }
+
+    // Shrink first so the color conversion only touches a few thousand pixels
+    private void makeThumbnail(Mat frame) {
+        int height = Math.max(1, frame.rows() * THUMBNAIL_WIDTH / Math.max(1, frame.cols()));
+        Imgproc.resize(frame, small, new Size(THUMBNAIL_WIDTH, height), 0, 0, Imgproc.INTER_AREA);
+        if (small.channels() > 1) {
+            Imgproc.cvtColor(small, thumbnail, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            small.copyTo(thumbnail);
+        }
+    }
+
+    @Override
+    public void release() {
+        small.release();
+        thumbnail.release();
+        difference.release();
+        lastKeyThumbnail.release();
+    }
+}
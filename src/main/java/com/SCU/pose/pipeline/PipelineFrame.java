@@ -0,0 +1,88 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.Mat;
+
+import java.util.concurrent.CompletableFuture;
+
+// A key frame travelling through the pipeline. Each stage fills in its output
+// and drops the input it no longer needs, so a frame only ever holds one copy
+// of its pixels at a time.
+public class PipelineFrame {
+
+    // Marks the end of the stream on every queue
+    static final PipelineFrame END = new PipelineFrame(-1, null);
+
+    private final int frameIndex;
+    private Mat mat;
+    private byte[] encoded;
+    private CompletableFuture<float[]> pendingLandmarks;
+    private float[] landmarks;
+    private RoiTracker.Region region;
+
+    public PipelineFrame(int frameIndex, Mat mat) {
+        this.frameIndex = frameIndex;
+        this.mat = mat;
+    }
+
+    // Index of the frame in the source video (not the key frame ordinal)
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    public Mat getMat() {
+        return mat;
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    public void setEncoded(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    // Inference result that may still be in flight
+    public CompletableFuture<float[]> getPendingLandmarks() {
+        return pendingLandmarks;
+    }
+
+    public void setPendingLandmarks(CompletableFuture<float[]> pendingLandmarks) {
+        this.pendingLandmarks = pendingLandmarks;
+    }
+
+    // Part of the frame that was sent to inference, null for the whole frame
+    public RoiTracker.Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(RoiTracker.Region region) {
+        this.region = region;
+    }
+
+    // One frame in PoseSequence layout, all NaN when no person was found
+    public float[] getLandmarks() {
+        return landmarks;
+    }
+
+    public void setLandmarks(float[] landmarks) {
+        this.landmarks = landmarks;
+    }
+
+    // Free the native pixel buffer once the frame has been encoded
+    void releaseMat() {
+        if (mat != null) {
+            mat.release();
+            mat = null;
+        }
+    }
+
+    // Free everything a frame that will not be analyzed still holds: its
+    // pixels and the inference it is waiting for
+    void discard() {
+        releaseMat();
+        if (pendingLandmarks != null) {
+            pendingLandmarks.cancel(true);
+            pendingLandmarks = null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.SCU.pose.pipeline;
+
+import com.SCU.pose.model.PoseSequence;
+import org.opencv.core.Rect;
+
+// Follows the athlete through one video. The visible landmarks of the latest
+// inferred key frame, padded on every side, give the region the next key
+// frames are cropped to before inference. Results arrive out of order, so only
+// a newer frame moves the region. A frame without a person, or with too few
+// visible keypoints, drops the region and the following frames go to
+// inference whole until the person is found again.
+//
+// The pipeline crops frames while earlier ones are still queued or being
+// inferred, so the landmarks behind the region are several frames old. The
+// padding grows with that lag, by lagPadding per frame, so an athlete who
+// moved in the meantime is still inside the crop.
+public class RoiTracker {
+
+    // Fewer visible keypoints than this counts as losing the person
+    private static final int MIN_VISIBLE_KEYPOINTS = 8;
+
+    // A region covering more of the frame than this is not worth cropping to
+    private static final double MAX_AREA = 0.8;
+
+    private final double padding;
+    private final double lagPadding;
+    private final double minVisibility;
+    private final double minSize;
+    // Bounding box of the latest landmarks (min x, min y, max x, max y), or
+    // null while no person is tracked
+    private double[] box;
+    private int latestFrame = -1;
+
+    // padding is a fraction of the larger side of the landmarks' bounding box,
+    // and lagPadding is added to it for every frame between the landmarks and
+    // the frame being cropped; minSize is the smallest region side as a
+    // fraction of the frame
+    public RoiTracker(double padding, double lagPadding, double minVisibility, double minSize) {
+        this.padding = padding;
+        this.lagPadding = lagPadding;
+        this.minVisibility = minVisibility;
+        this.minSize = minSize;
+    }
+
+    // Region to crop the given frame to, or null for the whole frame
+    public synchronized Region current(int frameIndex) {
+        if (box == null) {
+            return null;
+        }
+        int lag = Math.max(0, frameIndex - latestFrame);
+        double pad = (padding + lagPadding * lag) * Math.max(box[2] - box[0], box[3] - box[1]);
+        double[] horizontal = span(box[0] - pad, box[2] + pad);
+        double[] vertical = span(box[1] - pad, box[3] + pad);
+        double width = horizontal[1] - horizontal[0];
+        double height = vertical[1] - vertical[0];
+        return width * height > MAX_AREA ? null : new Region(horizontal[0], vertical[0], width, height);
+    }
+
+    // Landmarks of a key frame in full-frame normalized coordinates
+    public synchronized void update(int frameIndex, float[] landmarks) {
+        if (frameIndex < latestFrame) {
+            return;
+        }
+        latestFrame = frameIndex;
+
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        int visible = 0;
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            int base = keypoint * PoseSequence.COMPONENTS;
+            float x = landmarks[base + PoseSequence.X];
+            float y = landmarks[base + PoseSequence.Y];
+            if (Float.isNaN(x) || Float.isNaN(y) || !(landmarks[base + PoseSequence.VISIBILITY] >= minVisibility)) {
+                continue;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            visible++;
+        }
+        box = visible < MIN_VISIBLE_KEYPOINTS ? null : new double[]{minX, minY, maxX, maxY};
+    }
+
+    // Grows [from, to] to at least minSize around its centre and keeps it within [0, 1]
+    private double[] span(double from, double to) {
+        double size = Math.min(1, Math.max(to - from, minSize));
+        double start = (from + to - size) / 2;
+        start = Math.max(0, Math.min(start, 1 - size));
+        return new double[]{start, start + size};
+    }
+
+    // Part of the frame, in normalized coordinates
+    public static class Region {
+        private final double x;
+        private final double y;
+        private final double width;
+        private final double height;
+
+        public Region(double x, double y, double width, double height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        // The exact region a pixel rectangle covers
+        public static Region of(Rect rect, int columns, int rows) {
+            return new Region((double) rect.x / columns, (double) rect.y / rows,
+                    (double) rect.width / columns, (double) rect.height / rows);
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getWidth() {
+            return width;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+
+        // Pixel rectangle of a frame of the given size, at least 1x1
+        public Rect toRect(int columns, int rows) {
+            int left = Math.min(columns - 1, (int) Math.round(x * columns));
+            int top = Math.min(rows - 1, (int) Math.round(y * rows));
+            int right = Math.min(columns, (int) Math.round((x + width) * columns));
+            int bottom = Math.min(rows, (int) Math.round((y + height) * rows));
+            return new Rect(left, top, Math.max(1, right - left), Math.max(1, bottom - top));
+        }
+
+        // Map landmarks normalized to this region back to the whole frame, in
+        // place. z shares the scale of x, as in the pose service's output.
+        public void toFullFrame(float[] landmarks) {
+            for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+                int base = keypoint * PoseSequence.COMPONENTS;
+                landmarks[base + PoseSequence.X] = (float) (x + landmarks[base + PoseSequence.X] * width);
+                landmarks[base + PoseSequence.Y] = (float) (y + landmarks[base + PoseSequence.Y] * height);
+                landmarks[base + PoseSequence.Z] = (float) (landmarks[base + PoseSequence.Z] * width);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.SCU.pose.pipeline;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Threads that work on one video and hand frames to each other through
+// queues. Each video gets its own pool, so it can be stopped and waited for
+// before the frames still queued are released: a worker that is only
+// cancelled may still be inside a decode or an encode and hand over a frame
+// after the queues have been drained.
+final class WorkerPool {
+
+    private WorkerPool() {
+    }
+
+    static ExecutorService start(int threads, String name, AtomicInteger threadCounter) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Interrupts the workers and returns once all of them have. The wait is
+    // not cut short if the calling thread is interrupted (as it is when the
+    // video is cancelled); the interrupt is restored afterwards.
+    static void stop(ExecutorService pool) {
+        pool.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
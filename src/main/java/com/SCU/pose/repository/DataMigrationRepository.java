@@ -0,0 +1,7 @@
+package com.SCU.pose.repository;
+
+import com.SCU.pose.model.DataMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+}
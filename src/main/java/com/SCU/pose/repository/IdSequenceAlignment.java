@@ -0,0 +1,47 @@
+package com.SCU.pose.repository;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Video, Image and Coordinate ids used to be IDENTITY columns and now come from
+// pooled sequences (allocationSize 50). ddl-auto=update creates the sequences
+// starting at 1, so on a database with rows from before the switch the first
+// batches would collide with existing ids. At startup, once the schema is
+// updated and before requests are accepted, each sequence that is behind its
+// table's largest id is moved past it. Hibernate's pooled optimizer hands out
+// the block that ends at the value nextval returns, so the sequence is set a
+// whole block above the largest id. Sequences already ahead are left alone,
+// so this is a no-op after the first start.
+@Component
+@ConditionalOnProperty(name = "pose.storage.align-sequences", havingValue = "true", matchIfMissing = true)
+public class IdSequenceAlignment implements SmartInitializingSingleton {
+
+    // Must match allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Sequence and the table whose ids it generates
+    private static final String[][] SEQUENCES = {
+            {"video_seq", "video"},
+            {"image_seq", "image"},
+            {"coordinate_seq", "coordinate"},
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String[] sequence : SEQUENCES) {
+            align(sequence[0], sequence[1]);
+        }
+    }
+
+    private void align(String sequence, String table) {
+        jdbcTemplate.queryForList("select setval('" + sequence + "', max_id + " + ALLOCATION_SIZE + ")"
+                + " from (select coalesce(max(id), 0) as max_id from " + table + ") ids"
+                + " where max_id >= (select last_value from " + sequence + ")");
+    }
+}
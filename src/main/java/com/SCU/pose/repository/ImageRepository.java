@@ -2,9 +2,18 @@ package com.SCU.pose.repository;
 
 import com.SCU.pose.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Integer> {
     // Define additional custom methods here if needed
+
+    // All frames of a video with their coordinates in one query. Fetched apart
+    // from the video's images because Hibernate cannot fetch two bags at once.
+    @Query("select distinct i from Image i left join fetch i.coordinates where i.video.id = :videoId order by i.id")
+    List<Image> findWithCoordinatesByVideoId(@Param("videoId") int videoId);
 }
@@ -0,0 +1,47 @@
+package com.SCU.pose.repository;
+
+import com.SCU.pose.model.UserExerciseStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UserExerciseStatsRepository extends JpaRepository<UserExerciseStats, Integer> {
+
+    // Adds videos to the period's row, creating it if needed. A single
+    // statement, so concurrent videos of the same user cannot lose updates.
+    @Modifying
+    @Query(value = "insert into user_exercise_stats (user_id, exercise, period, period_start, unit, videos, total, score_sum, best_score)"
+            + " values (:userId, :exercise, :period, :periodStart, :unit, :videos, :total, :scoreSum, :bestScore)"
+            + " on conflict (user_id, exercise, period, period_start) do update set"
+            + " unit = excluded.unit,"
+            + " videos = user_exercise_stats.videos + excluded.videos,"
+            + " total = user_exercise_stats.total + excluded.total,"
+            + " score_sum = user_exercise_stats.score_sum + excluded.score_sum,"
+            + " best_score = greatest(user_exercise_stats.best_score, excluded.best_score)",
+            nativeQuery = true)
+    void add(@Param("userId") int userId, @Param("exercise") String exercise, @Param("period") String period,
+             @Param("periodStart") LocalDate periodStart, @Param("unit") String unit, @Param("videos") int videos,
+             @Param("total") long total, @Param("scoreSum") double scoreSum, @Param("bestScore") double bestScore);
+
+    // Held until the end of the transaction; blocks other writers, not readers
+    @Modifying
+    @Query(value = "lock table user_exercise_stats in share row exclusive mode", nativeQuery = true)
+    void lock();
+
+    // All-time rows plus the days and weeks starting on or after the given dates;
+    // at most one row per exercise and period, whatever the number of videos
+    @Query("select s from UserExerciseStats s where s.userId = :userId and (s.period = 'all'"
+            + " or (s.period = 'day' and s.periodStart >= :dayFrom)"
+            + " or (s.period = 'week' and s.periodStart >= :weekFrom))"
+            + " order by s.periodStart, s.exercise")
+    List<UserExerciseStats> findRecent(@Param("userId") int userId, @Param("dayFrom") LocalDate dayFrom,
+                                       @Param("weekFrom") LocalDate weekFrom);
+
+    @Modifying
+    @Query("delete from UserExerciseStats s where s.userId = :userId")
+    void deleteByUserId(@Param("userId") int userId);
+}
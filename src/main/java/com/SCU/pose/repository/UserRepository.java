@@ -1,9 +1,19 @@
 package com.SCU.pose.repository;
 
+import com.SCU.pose.dto.UserSummary;
 import com.SCU.pose.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
+    // Users with an id above the cursor, in id order, with their video count
+    @Query("select new com.SCU.pose.dto.UserSummary(u.id, u.username, count(v.id)) from User u left join u.videos v"
+            + " where u.id > :after group by u.id, u.username order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("after") int after, Pageable pageable);
 }
@@ -0,0 +1,36 @@
+package com.SCU.pose.repository;
+
+import com.SCU.pose.model.Video;
+import com.SCU.pose.service.UserStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+
+// Writes a fully analyzed video graph in one transaction. Ids come from pooled
+// sequences and hibernate.jdbc.batch_size / order_inserts are on, so the
+// Video, Image and Coordinate rows go out as a few multi-row batches instead
+// of one round-trip per row. The user's training statistics are updated in
+// the same transaction, so they always match the saved videos.
+@Repository
+public class VideoBulkWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Transactional
+    public Video save(Video video) {
+        entityManager.persist(video);
+        entityManager.flush();
+        userStatsService.record(video.getUser().getId(), video.getAnalysis(), LocalDate.now());
+        // The caller keeps the graph; nothing here needs to stay managed
+        entityManager.clear();
+        return video;
+    }
+}
@@ -1,10 +1,44 @@
 package com.SCU.pose.repository;
 
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.model.ExerciseReport;
 import com.SCU.pose.model.Video;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Integer> {
     // Define additional custom methods here if needed
+
+    // Analysis of earlier uploads of the same content, newest first. Only the
+    // analysis column is read, not the landmarks.
+    @Query("select v.analysis from Video v where v.user.id = :userId and v.contentHash = :contentHash order by v.id desc")
+    List<ExerciseReport> findAnalysesByContentHash(@Param("userId") int userId,
+                                                   @Param("contentHash") String contentHash,
+                                                   Pageable pageable);
+
+    // A user's videos with an id below the cursor, newest first, without landmarks
+    @Query("select new com.SCU.pose.dto.VideoSummary(v.id, v.user.id, v.contentHash, v.analysis) from Video v"
+            + " where v.user.id = :userId and v.id < :before order by v.id desc")
+    List<VideoSummary> findSummariesBefore(@Param("userId") int userId, @Param("before") int before, Pageable pageable);
+
+    // All users' videos with an id above the cursor, in id order, without landmarks
+    @Query("select new com.SCU.pose.dto.VideoSummary(v.id, v.user.id, v.contentHash, v.analysis) from Video v"
+            + " where v.id > :after order by v.id")
+    List<VideoSummary> findSummariesAfter(@Param("after") int after, Pageable pageable);
+
+    @Query("select new com.SCU.pose.dto.VideoSummary(v.id, v.user.id, v.contentHash, v.analysis) from Video v"
+            + " where v.id = :id")
+    Optional<VideoSummary> findSummaryById(@Param("id") int id);
+
+    // The video with its frames in one query; see ImageRepository for their coordinates
+    @EntityGraph(attributePaths = "images")
+    Optional<Video> findWithImagesById(int id);
 }
@@ -0,0 +1,129 @@
+package com.SCU.pose.service;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// In-memory state of a chunked upload. The file is allocated at its final
+// size up front and every chunk is written at its own offset, so chunks can
+// arrive on parallel connections and in any order. A chunk counts as received
+// once all of its bytes are written; the client resumes by sending the
+// missing ones.
+public class ChunkedUpload {
+
+    private final String id;
+    private final int userId;
+    private final long size;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final Path path;
+    private final FileChannel channel;
+    private final BitSet received;
+    private int writing;
+    private boolean closed;
+    private long writeNanos;
+    private volatile long lastActiveAt;
+
+    public ChunkedUpload(String id, int userId, long size, int chunkSize, Path path, FileChannel channel) {
+        this.id = id;
+        this.userId = userId;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        this.path = path;
+        this.channel = channel;
+        this.received = new BitSet(chunkCount);
+        this.lastActiveAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    // Total size in bytes
+    public long getSize() {
+        return size;
+    }
+
+    // Every chunk is this long except possibly the last
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public synchronized int getReceivedChunks() {
+        return received.cardinality();
+    }
+
+    // Indexes of the chunks still to send, in order
+    public synchronized List<Integer> getMissingChunks() {
+        List<Integer> missing = new ArrayList<>(chunkCount - received.cardinality());
+        for (int index = received.nextClearBit(0); index < chunkCount; index = received.nextClearBit(index + 1)) {
+            missing.add(index);
+        }
+        return missing;
+    }
+
+    public long getLastActiveAt() {
+        return lastActiveAt;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    long getChunkOffset(int index) {
+        return (long) index * chunkSize;
+    }
+
+    long getChunkLength(int index) {
+        return Math.min(chunkSize, size - getChunkOffset(index));
+    }
+
+    // False once the upload is finished or aborted
+    synchronized boolean beginWrite() {
+        if (closed) {
+            return false;
+        }
+        writing++;
+        lastActiveAt = System.currentTimeMillis();
+        return true;
+    }
+
+    synchronized void endWrite(int index, boolean written, long nanos) {
+        writing--;
+        writeNanos += nanos;
+        if (written) {
+            received.set(index);
+        }
+        lastActiveAt = System.currentTimeMillis();
+    }
+
+    // Stops further writes. Fails while a chunk is being written, or when
+    // complete is set and chunks are missing.
+    synchronized boolean close(boolean complete) {
+        if (closed || writing > 0 || (complete && received.cardinality() < chunkCount)) {
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+
+    // Time spent writing chunks, summed over all connections
+    synchronized long getWriteNanos() {
+        return writeNanos;
+    }
+}
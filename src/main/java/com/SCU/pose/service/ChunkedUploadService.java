@@ -0,0 +1,215 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Resumable uploads in chunks: create an upload of a known size, PUT its
+// chunks by index from as many connections as the client likes, then finish
+// it to get a StoredUpload for processVideo. Chunks are written straight into
+// the preallocated file in the upload directory with positional channel
+// writes, which may run concurrently on one FileChannel.
+@Service
+public class ChunkedUploadService {
+
+    private static final long MB = 1024 * 1024;
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+    // Keeps the received-chunk bitmap small
+    private static final long MAX_CHUNKS = 65536;
+
+    @Autowired
+    private VideoUploadStore videoUploadStore;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${pose.upload.chunked.chunk-size-mb:8}")
+    private int defaultChunkSizeMb;
+
+    @Value("${pose.upload.chunked.max-chunk-size-mb:64}")
+    private int maxChunkSizeMb;
+
+    @Value("${pose.upload.chunked.max-size-mb:1024}")
+    private long maxSizeMb;
+
+    @Value("${pose.upload.chunked.max-uploads:32}")
+    private int maxUploads;
+
+    @Value("${pose.upload.chunked.expire-minutes:30}")
+    private long expireMinutes;
+
+    private final Map<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        pipelineMetrics.gauge("pose.upload.chunked.active", "Chunked uploads not yet finished", uploads::size);
+    }
+
+    // Allocates the file for an upload of size bytes. chunkSize 0 picks the
+    // default. Throws IllegalArgumentException for sizes out of range and
+    // IllegalStateException when too many uploads are open.
+    public ChunkedUpload create(int userId, long size, int chunkSize) throws IOException {
+        evictExpiredUploads();
+        if (chunkSize == 0) {
+            chunkSize = (int) (defaultChunkSizeMb * MB);
+        }
+        if (size <= 0 || size > maxSizeMb * MB) {
+            throw new IllegalArgumentException("Upload size must be between 1 and " + maxSizeMb * MB + " bytes");
+        }
+        if (chunkSize <= 0 || chunkSize > maxChunkSizeMb * MB) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + maxChunkSizeMb * MB + " bytes");
+        }
+        if ((size + chunkSize - 1) / chunkSize > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Chunk size must be at least " + (size + MAX_CHUNKS - 1) / MAX_CHUNKS + " bytes");
+        }
+        if (uploads.size() >= maxUploads) {
+            throw new IllegalStateException("Too many uploads in progress");
+        }
+
+        Path file = videoUploadStore.createTempFile();
+        FileChannel channel = null;
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw");
+            channel = randomAccessFile.getChannel();
+            randomAccessFile.setLength(size);
+            ChunkedUpload upload = new ChunkedUpload(UUID.randomUUID().toString(), userId, size, chunkSize, file, channel);
+            uploads.put(upload.getId(), upload);
+            return upload;
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            videoUploadStore.delete(file);
+            throw e;
+        }
+    }
+
+    public Optional<ChunkedUpload> get(String id) {
+        return Optional.ofNullable(uploads.get(id));
+    }
+
+    // Streams one chunk from the request body to its place in the file.
+    // Sending a chunk again overwrites it. Throws IllegalArgumentException for
+    // a bad index or a body of the wrong length, and IllegalStateException
+    // once the upload is finished or aborted.
+    public ChunkedUpload writeChunk(ChunkedUpload upload, int index, InputStream in) throws IOException {
+        if (index < 0 || index >= upload.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (upload.getChunkCount() - 1));
+        }
+        if (!upload.beginWrite()) {
+            throw new IllegalStateException("Upload " + upload.getId() + " is closed");
+        }
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            long offset = upload.getChunkOffset(index);
+            long length = upload.getChunkLength(index);
+            ReadableByteChannel source = Channels.newChannel(in);
+            long position = 0;
+            while (position < length) {
+                long transferred = upload.getChannel().transferFrom(source, offset + position, length - position);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            if (position < length || in.read() != -1) {
+                throw new IllegalArgumentException("Chunk " + index + " must be " + length + " bytes");
+            }
+            written = true;
+            return upload;
+        } finally {
+            upload.endWrite(index, written, System.nanoTime() - start);
+        }
+    }
+
+    // Closes a complete upload and hands over its file, hashed for the result
+    // cache. The caller owns the file from here on. Throws
+    // IllegalStateException while chunks are missing or still being written.
+    public StoredUpload finish(ChunkedUpload upload) throws IOException {
+        if (!upload.close(true)) {
+            throw new IllegalStateException("Upload " + upload.getId() + " is missing chunks " + upload.getMissingChunks());
+        }
+        uploads.remove(upload.getId());
+        try (FileChannel channel = upload.getChannel()) {
+            long start = System.nanoTime();
+            // Chunks arrive out of order, so the hash has to read the file once
+            MessageDigest digest = VideoUploadStore.newDigest();
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+            long position = 0;
+            while (position < upload.getSize()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            long writeNanos = upload.getWriteNanos() + System.nanoTime() - start;
+            pipelineMetrics.record(Stage.UPLOAD_WRITE, writeNanos);
+            return new StoredUpload(upload.getPath(), VideoUploadStore.toHex(digest.digest()), writeNanos);
+        } catch (IOException | RuntimeException e) {
+            videoUploadStore.delete(upload.getPath());
+            throw e;
+        }
+    }
+
+    // Drops an upload and its file. Returns false while a chunk is being written.
+    public boolean abort(ChunkedUpload upload) {
+        if (!upload.close(false)) {
+            return false;
+        }
+        discard(upload);
+        return true;
+    }
+
+    private void discard(ChunkedUpload upload) {
+        uploads.remove(upload.getId());
+        try {
+            upload.getChannel().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        videoUploadStore.delete(upload.getPath());
+    }
+
+    // Drop uploads nobody has sent a chunk to for expire-minutes
+    private void evictExpiredUploads() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(expireMinutes);
+        for (ChunkedUpload upload : uploads.values()) {
+            if (upload.getLastActiveAt() < cutoff && upload.close(false)) {
+                discard(upload);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ChunkedUpload upload : uploads.values()) {
+            if (upload.close(false)) {
+                discard(upload);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.analysis.MultiExerciseAnalyzer;
+import com.SCU.pose.analysis.PlankAnalyzer;
+import com.SCU.pose.analysis.PushupAnalyzer;
+import com.SCU.pose.dto.CoachingUpdate;
+import com.SCU.pose.dto.LandmarkFrameMessage;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Live coaching for clients that estimate poses on-device. Each STOMP session
+// keeps its own analyzer for every registered exercise (a few hundred bytes of
+// state), fed with the landmark frames the client streams in, so live counts
+// match what the same frames would give in an uploaded video.
+@Service
+public class CoachingService {
+
+    @Autowired
+    private ExerciseRegistry exerciseRegistry;
+
+    private final Map<String, CoachingSession> sessions = new ConcurrentHashMap<>();
+
+    private static class CoachingSession {
+        private final MultiExerciseAnalyzer analyzer;
+        private final PoseFrame view = new PoseFrame();
+        private final float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        // Highest sequence taken so far, null until a numbered frame arrives
+        private Long lastSequence;
+
+        CoachingSession(MultiExerciseAnalyzer analyzer) {
+            this.analyzer = analyzer;
+        }
+    }
+
+    public CoachingUpdate accept(String sessionId, LandmarkFrameMessage message) {
+        CoachingSession session = sessions.computeIfAbsent(sessionId,
+                id -> new CoachingSession(exerciseRegistry.newAnalyzer()));
+        // Inbound messages of one session may be handled on different threads
+        synchronized (session) {
+            Long sequence = message.getSequence();
+            if (sequence == null || session.lastSequence == null || sequence > session.lastSequence) {
+                if (sequence != null) {
+                    session.lastSequence = sequence;
+                }
+                float[] landmarks = message.getLandmarks();
+                if (landmarks != null && landmarks.length == PoseSequence.FRAME_STRIDE) {
+                    System.arraycopy(landmarks, 0, session.frame, 0, PoseSequence.FRAME_STRIDE);
+                } else {
+                    Arrays.fill(session.frame, Float.NaN);
+                }
+                session.analyzer.accept(session.view.at(session.frame, 0));
+            }
+
+            ExerciseReport report = session.analyzer.snapshot();
+            ExerciseResult pushups = result(report, PushupAnalyzer.EXERCISE);
+            ExerciseResult planks = result(report, PlankAnalyzer.EXERCISE);
+            return new CoachingUpdate(sequence, message.getSentAt(),
+                    pushups.getCount(), pushups.getAverageScore(),
+                    planks.getCount(), planks.getAverageScore(), report.getExercises());
+        }
+    }
+
+    // Zero for an exercise that is not registered
+    private static ExerciseResult result(ExerciseReport report, String exercise) {
+        ExerciseResult result = report.getExercise(exercise);
+        return result != null ? result : new ExerciseResult(exercise, null, 0, 0);
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public void endSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        endSession(event.getSessionId());
+    }
+}
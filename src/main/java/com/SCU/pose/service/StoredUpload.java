@@ -0,0 +1,32 @@
+package com.SCU.pose.service;
+
+import java.nio.file.Path;
+
+// An upload written to a temporary file, with the SHA-256 of its content
+// computed while it streamed in
+public class StoredUpload {
+
+    private final Path path;
+    private final String contentHash;
+    private final long writeNanos;
+
+    public StoredUpload(Path path, String contentHash, long writeNanos) {
+        this.path = path;
+        this.contentHash = contentHash;
+        this.writeNanos = writeNanos;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Lowercase hex SHA-256
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    // Time it took to stream the upload to disk
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+}
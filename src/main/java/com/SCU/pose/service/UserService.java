@@ -1,9 +1,13 @@
 package com.SCU.pose.service;
 
+import com.SCU.pose.dto.CursorPage;
+import com.SCU.pose.dto.UserSummary;
 import com.SCU.pose.model.User;
 import com.SCU.pose.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +17,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStatsService userStatsService;
+
     public User createUser(User user) {
         //check if a user with the same name already exists
         return userRepository.save(user);
@@ -24,11 +31,24 @@ public class UserService {
 
     }
 
+    public boolean exists(Integer id) {
+        return userRepository.existsById(id);
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Users in id order, starting after the given cursor (null for the first page)
+    public CursorPage<UserSummary> listUsers(Integer after, int limit) {
+        limit = CursorPage.clampLimit(limit);
+        List<UserSummary> rows = userRepository.findSummariesAfter(after == null ? 0 : after, PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, UserSummary::getId);
+    }
+
+    @Transactional
     public void deleteUser(Integer id) {
+        userStatsService.deleteStats(id);
         userRepository.deleteById(id);
     }
 
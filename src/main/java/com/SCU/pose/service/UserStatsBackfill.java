@@ -0,0 +1,23 @@
+package com.SCU.pose.service;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Fills user_exercise_stats from the stored videos on the first start after
+// the table was introduced; later starts find it recorded as done (see
+// UserStatsService.backfill). Runs once all
+// beans exist but before the web server accepts requests.
+@Component
+@ConditionalOnProperty(name = "pose.stats.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class UserStatsBackfill implements SmartInitializingSingleton {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        userStatsService.backfill();
+    }
+}
@@ -0,0 +1,165 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.dto.ExerciseStats;
+import com.SCU.pose.dto.UserStats;
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.model.DataMigration;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.UserExerciseStats;
+import com.SCU.pose.repository.DataMigrationRepository;
+import com.SCU.pose.repository.UserExerciseStatsRepository;
+import com.SCU.pose.repository.VideoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-user training statistics, kept up to date as videos are analyzed instead
+// of being recomputed from the videos on every request
+@Service
+public class UserStatsService {
+
+    // Bounds on the rollups one request returns, which bound the rows it reads
+    public static final int MAX_DAYS = 366;
+    public static final int MAX_WEEKS = 104;
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    @Autowired
+    private UserExerciseStatsRepository userExerciseStatsRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private DataMigrationRepository dataMigrationRepository;
+
+    // Adds an analyzed video to the user's all-time, daily and weekly rows.
+    // Called by VideoBulkWriter inside the transaction that saves the video.
+    @Transactional
+    public void record(int userId, ExerciseReport report, LocalDate day) {
+        LocalDate week = weekOf(day);
+        for (ExerciseResult result : report.getExercises().values()) {
+            // The analyzers report every exercise; only those actually done count
+            if (result.getCount() == 0) {
+                continue;
+            }
+            add(userId, result, UserExerciseStats.ALL, UserExerciseStats.ALL_TIME);
+            add(userId, result, UserExerciseStats.DAY, day);
+            add(userId, result, UserExerciseStats.WEEK, week);
+        }
+    }
+
+    private void add(int userId, ExerciseResult result, String period, LocalDate periodStart) {
+        userExerciseStatsRepository.add(userId, result.getExercise(), period, periodStart, result.getUnit(),
+                1, result.getCount(), result.getAverageScore(), result.getAverageScore());
+    }
+
+    // All-time totals plus the last days days and weeks weeks, today included
+    public UserStats getStats(int userId, int days, int weeks) {
+        days = Math.max(1, Math.min(days, MAX_DAYS));
+        weeks = Math.max(1, Math.min(weeks, MAX_WEEKS));
+        LocalDate today = LocalDate.now();
+        List<UserExerciseStats> rows = userExerciseStatsRepository.findRecent(userId,
+                today.minusDays(days - 1), weekOf(today).minusWeeks(weeks - 1));
+
+        Map<String, ExerciseStats> totals = new LinkedHashMap<>();
+        List<ExerciseStats> daily = new ArrayList<>();
+        List<ExerciseStats> weekly = new ArrayList<>();
+        for (UserExerciseStats row : rows) {
+            if (UserExerciseStats.ALL.equals(row.getPeriod())) {
+                totals.put(row.getExercise(), toExerciseStats(row, null));
+            } else if (UserExerciseStats.DAY.equals(row.getPeriod())) {
+                daily.add(toExerciseStats(row, row.getPeriodStart()));
+            } else {
+                weekly.add(toExerciseStats(row, row.getPeriodStart()));
+            }
+        }
+        return new UserStats(userId, totals, daily, weekly);
+    }
+
+    // Builds the all-time rows from the analysis of every stored video, for
+    // videos saved before statistics were kept. Runs once: completion is
+    // recorded in data_migration in the same transaction, and later starts
+    // only check for that row. Videos carry no date, so they only count
+    // towards all-time totals; daily and weekly rollups start with the first
+    // video recorded afterwards. The table lock keeps videos saved meanwhile,
+    // here or on another instance, from being counted twice or missed.
+    // Returns the number of videos counted.
+    @Transactional
+    public int backfill() {
+        if (dataMigrationRepository.existsById(DataMigration.USER_STATS_BACKFILL)) {
+            return 0;
+        }
+        userExerciseStatsRepository.lock();
+        // Another instance may have completed it while this one waited for the lock
+        if (dataMigrationRepository.existsById(DataMigration.USER_STATS_BACKFILL)) {
+            return 0;
+        }
+        // Rows but no marker: an earlier version backfilled without recording
+        // it, so the videos are already counted
+        int videos = userExerciseStatsRepository.count() > 0 ? 0 : addAllTimeTotals();
+        dataMigrationRepository.save(new DataMigration(DataMigration.USER_STATS_BACKFILL, Instant.now()));
+        return videos;
+    }
+
+    private int addAllTimeTotals() {
+        // Totals by user and exercise; small next to the videos themselves
+        Map<String, UserExerciseStats> totals = new LinkedHashMap<>();
+        int videos = 0;
+        int after = 0;
+        List<VideoSummary> page;
+        do {
+            page = videoRepository.findSummariesAfter(after, PageRequest.of(0, BACKFILL_PAGE_SIZE));
+            for (VideoSummary video : page) {
+                after = video.getId();
+                if (video.getAnalysis() == null) {
+                    continue;
+                }
+                videos++;
+                for (ExerciseResult result : video.getAnalysis().getExercises().values()) {
+                    if (result.getCount() == 0) {
+                        continue;
+                    }
+                    UserExerciseStats row = totals.computeIfAbsent(video.getUserId() + ":" + result.getExercise(),
+                            key -> new UserExerciseStats(video.getUserId(), result.getExercise(), UserExerciseStats.ALL,
+                                    UserExerciseStats.ALL_TIME, result.getUnit(), 0, 0, 0, 0));
+                    row.setVideos(row.getVideos() + 1);
+                    row.setTotal(row.getTotal() + result.getCount());
+                    row.setScoreSum(row.getScoreSum() + result.getAverageScore());
+                    row.setBestScore(Math.max(row.getBestScore(), result.getAverageScore()));
+                }
+            }
+        } while (page.size() == BACKFILL_PAGE_SIZE);
+
+        for (UserExerciseStats row : totals.values()) {
+            userExerciseStatsRepository.add(row.getUserId(), row.getExercise(), row.getPeriod(), row.getPeriodStart(),
+                    row.getUnit(), row.getVideos(), row.getTotal(), row.getScoreSum(), row.getBestScore());
+        }
+        return videos;
+    }
+
+    @Transactional
+    public void deleteStats(int userId) {
+        userExerciseStatsRepository.deleteByUserId(userId);
+    }
+
+    private static ExerciseStats toExerciseStats(UserExerciseStats row, LocalDate periodStart) {
+        return new ExerciseStats(row.getExercise(), row.getUnit(), periodStart, row.getVideos(), row.getTotal(),
+                row.getScoreSum() / row.getVideos(), row.getBestScore());
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,96 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.metrics.VideoTrace;
+import com.SCU.pose.model.ExerciseReport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-memory status of an asynchronous video processing job
+public class VideoJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final int userId;
+    private final long submittedAt;
+    private final AtomicInteger framesProcessed = new AtomicInteger();
+    private volatile Status status = Status.QUEUED;
+    private volatile ExerciseReport result;
+    private volatile String error;
+    private volatile long finishedAt;
+    private volatile VideoTrace trace;
+
+    public VideoJob(String id, int userId) {
+        this.id = id;
+        this.userId = userId;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Number of key frames analyzed so far
+    public int getFramesProcessed() {
+        return framesProcessed.get();
+    }
+
+    public ExerciseReport getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Per-stage timings, once the job has started
+    public VideoTrace getTrace() {
+        return trace;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void frameProcessed() {
+        framesProcessed.incrementAndGet();
+    }
+
+    void started(VideoTrace trace) {
+        this.trace = trace;
+        status = Status.RUNNING;
+    }
+
+    void completed(ExerciseReport result) {
+        this.result = result;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+}
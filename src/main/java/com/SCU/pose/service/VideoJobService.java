@@ -0,0 +1,121 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.VideoTrace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs processVideo in the background on a bounded worker pool. Uploads beyond
+// the queue capacity are rejected instead of piling up on the heap. An
+// identical upload that is still queued or running is handed back instead of a
+// second job; one the user has uploaded before is answered by processVideo
+// from the result cache.
+@Service
+public class VideoJobService {
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private VideoUploadStore videoUploadStore;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${pose.jobs.workers:2}")
+    private int workers;
+
+    @Value("${pose.jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${pose.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, VideoJob> jobs = new ConcurrentHashMap<>();
+    // Unfinished jobs by user and content hash
+    private final Map<String, VideoJob> activeJobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "video-job-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pipelineMetrics.gauge("pose.jobs.queued", "Videos waiting for a job worker", this::getQueueDepth);
+        pipelineMetrics.gauge("pose.jobs.running", "Videos being processed by job workers", jobExecutor::getActiveCount);
+    }
+
+    // Queue a video for processing. The job takes ownership of the uploaded file.
+    // Throws RejectedExecutionException when the queue is full; the file is
+    // left to the caller in that case.
+    public VideoJob submit(StoredUpload upload, int userId) {
+        evictExpiredJobs();
+
+        String contentKey = userId + ":" + upload.getContentHash();
+        VideoJob job = new VideoJob(UUID.randomUUID().toString(), userId);
+        VideoJob active = activeJobs.putIfAbsent(contentKey, job);
+        if (active != null) {
+            videoUploadStore.delete(upload.getPath());
+            return active;
+        }
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job, upload, contentKey));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            activeJobs.remove(contentKey);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<VideoJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // Jobs waiting for a worker
+    public int getQueueDepth() {
+        return jobExecutor.getQueue().size();
+    }
+
+    private void run(VideoJob job, StoredUpload upload, String contentKey) {
+        VideoTrace trace = pipelineMetrics.startTrace(job.getId());
+        job.started(trace);
+        try {
+            job.completed(videoService.processVideo(upload, job.getUserId(), trace, job::frameProcessed));
+        } catch (Exception e) {
+            e.printStackTrace();
+            job.failed(e.getMessage());
+        } finally {
+            activeJobs.remove(contentKey);
+        }
+    }
+
+    // Forget finished jobs once they are past the retention period
+    private void evictExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.dto.CursorPage;
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.Video;
+import com.SCU.pose.repository.ImageRepository;
+import com.SCU.pose.repository.VideoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+// Reads of stored videos. Listings are keyset-paged summaries that never touch
+// the landmarks, so their cost does not grow with the landmarks stored. Only
+// re-analysis loads a video's frames, with a fixed number of queries.
+@Service
+public class VideoQueryService {
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private VideoAnalysisService videoAnalysisService;
+
+    // A user's videos newest first, starting below the given cursor (null for the first page)
+    public CursorPage<VideoSummary> listVideos(int userId, Integer before, int limit) {
+        limit = CursorPage.clampLimit(limit);
+        List<VideoSummary> rows = videoRepository.findSummariesBefore(userId, before == null ? Integer.MAX_VALUE : before,
+                PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, VideoSummary::getId);
+    }
+
+    public Optional<VideoSummary> getVideo(int id) {
+        return videoRepository.findSummaryById(id);
+    }
+
+    // The video with everything analysis reads: the packed landmarks, or in
+    // legacy storage its images and their coordinates (one query each)
+    @Transactional(readOnly = true)
+    public Optional<Video> findWithFrames(int id) {
+        Optional<Video> video = videoRepository.findWithImagesById(id);
+        video.ifPresent(found -> {
+            if (found.getLandmarks() == null && !found.getImages().isEmpty()) {
+                // Initializes the coordinates of the images loaded above
+                imageRepository.findWithCoordinatesByVideoId(id);
+            }
+        });
+        return video;
+    }
+
+    // Run the current analyzers again over a stored video's landmarks
+    public Optional<ExerciseReport> reanalyze(int id) {
+        return findWithFrames(id).map(videoAnalysisService::analyze);
+    }
+}
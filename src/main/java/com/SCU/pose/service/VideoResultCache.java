@@ -0,0 +1,127 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.repository.VideoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Results of videos a user has already uploaded, keyed by user and content
+// hash. Lookups go through a bounded in-memory LRU, then the content_hash
+// index of the Video table. Identical uploads that arrive while the first one
+// is still being processed wait for that result instead of processing the
+// video again.
+@Component
+public class VideoResultCache {
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Value("${pose.cache.results.capacity:1024}")
+    private int capacity;
+
+    private RecentReports recent;
+    private final Map<String, CompletableFuture<ExerciseReport>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        recent = new RecentReports(capacity);
+    }
+
+    // Result of an earlier upload with this content, if there is one
+    public Optional<ExerciseReport> get(int userId, String contentHash) {
+        String key = key(userId, contentHash);
+        ExerciseReport report = recent(key);
+        if (report != null) {
+            return Optional.of(report);
+        }
+        List<ExerciseReport> stored = videoRepository.findAnalysesByContentHash(userId, contentHash, PageRequest.of(0, 1));
+        if (stored.isEmpty() || stored.get(0) == null) {
+            return Optional.empty();
+        }
+        put(key, stored.get(0));
+        return Optional.of(stored.get(0));
+    }
+
+    // Return the known result, join an identical upload in progress, or run
+    // process and remember what it returns. Exceptions thrown by process reach
+    // every caller that joined it and are not cached.
+    public ExerciseReport getOrCompute(int userId, String contentHash, Supplier<ExerciseReport> process) {
+        Optional<ExerciseReport> known = get(userId, contentHash);
+        if (known.isPresent()) {
+            return known.get();
+        }
+
+        String key = key(userId, contentHash);
+        CompletableFuture<ExerciseReport> result = new CompletableFuture<>();
+        CompletableFuture<ExerciseReport> running = inFlight.putIfAbsent(key, result);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            // An identical upload may have finished between the lookup and here
+            ExerciseReport report = recent(key);
+            if (report == null) {
+                report = process.get();
+            }
+            put(key, report);
+            result.complete(report);
+            return report;
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    private ExerciseReport recent(String key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    private void put(String key, ExerciseReport report) {
+        synchronized (recent) {
+            recent.put(key, report);
+        }
+    }
+
+    private static String key(int userId, String contentHash) {
+        return userId + ":" + contentHash;
+    }
+
+    // Access-ordered map that drops the least recently used report beyond capacity
+    private static class RecentReports extends LinkedHashMap<String, ExerciseReport> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        RecentReports(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExerciseReport> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -1,249 +1,143 @@
 package com.SCU.pose.service;
 
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.analysis.MultiExerciseAnalyzer;
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import com.SCU.pose.metrics.VideoTrace;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.PoseFrame;
 import com.SCU.pose.model.User;
 import com.SCU.pose.model.Video;
 import com.SCU.pose.model.Image;
-import com.SCU.pose.model.Coordinate;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.inference.PoseEstimator;
+import com.SCU.pose.pipeline.FramePipeline;
 import com.SCU.pose.repository.UserRepository;
-import com.SCU.pose.repository.VideoRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.SCU.pose.repository.VideoBulkWriter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-import org.opencv.core.Core;
-import org.opencv.core.Mat;
-import org.opencv.core.MatOfByte;
-import org.opencv.highgui.HighGui;
-import org.opencv.videoio.VideoCapture;
-import org.opencv.imgcodecs.Imgcodecs;
-
-
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class VideoService {
 
-    @Autowired
-    private VideoAnalysisService videoAnalysisService;
+    private static final String LEGACY_STORAGE = "legacy";
+
+    // "packed" keeps a video's landmarks in one binary column, "legacy" in Image/Coordinate rows
+    @Value("${pose.storage.mode:packed}")
+    private String storageMode;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private VideoRepository videoRepository;
-
-
-
-    // Method to process video
-    public String processVideo(byte[] videoBytes, int userId) {
-        // Find user by userId
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
-            // Handle user not found
-            return "unvalid user";
-        }
+    private VideoBulkWriter videoBulkWriter;
 
-        // Create and save the video object
-        Video video = new Video();
-        video.setUser(user);
-        videoRepository.save(video);
+    @Autowired
+    private FramePipeline framePipeline;
 
-        // Split the video into key frames (every 3 frames)
-        List<byte[]> keyFrames = extractKeyFrames(videoBytes);
+    @Autowired
+    private PoseEstimator poseEstimator;
 
-        // Process each frame
-        for (byte[] frame : keyFrames) {
-            Image image = new Image();
-            List<Coordinate> coordinates = getCoordinatesFromFrame(frame);
-            image.setCoordinates(coordinates);
-            // Save or process the image object as needed
-        }
+    @Autowired
+    private VideoUploadStore videoUploadStore;
 
-        int pushupCount = videoAnalysisService.countPushups(video);
+    @Autowired
+    private ExerciseRegistry exerciseRegistry;
 
-        // Add the count to the analysis attribute of the video
-        String analysis = "Pushup count: " + pushupCount;
-        video.setAnalysis(analysis);
+    @Autowired
+    private VideoResultCache videoResultCache;
 
-        // Save the updated video object to the database
-        videoRepository.save(video);
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
 
-        return video.getAnalysis();
 
+    // Method to process video. Takes ownership of the uploaded file and deletes
+    // it once processing is done, whatever the outcome. A video the user has
+    // uploaded before is not processed again. Throws IllegalArgumentException
+    // for an unknown user.
+    public ExerciseReport processVideo(StoredUpload upload, int userId) {
+        return processVideo(upload, userId, pipelineMetrics.startTrace(UUID.randomUUID().toString()), () -> { });
     }
-    static {
-        // Load the OpenCV native library
-        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
-    }
-
-    public List<byte[]> extractKeyFrames(byte[] videoBytes) {
-        List<byte[]> keyFrames = new ArrayList<>();
 
-        // Assume videoBytes is the byte array of the video file
-        // Need to write this byte array to a temporary file, as OpenCV VideoCapture requires a file path
-        String tempVideoFilePath = writeToTempFile(videoBytes);
-
-        // Open the video file
-        VideoCapture videoCapture = new VideoCapture(tempVideoFilePath);
-
-        if (!videoCapture.isOpened()) {
-            // Handle error when opening the video file
-            throw new RuntimeException("Failed to open video file: " + tempVideoFilePath);
-        }
-
-        Mat frame = new Mat();
-        int frameCount = 0;
-
-        // Read video frames
-        while (videoCapture.read(frame)) {
-            // Extract a key frame every 3 frames
-            if (frameCount % 3 == 0) {
-                MatOfByte buffer = new MatOfByte();
-                // Encode the frame to a byte array
-                Imgcodecs.imencode(".jpg", frame, buffer);
-                // Add the byte array to the keyFrames list
-                keyFrames.add(buffer.toArray());
-            }
-            frameCount++;
-        }
-
-        // Release resources
-        videoCapture.release();
-
-        // Delete the temporary file
-        deleteTempFile(tempVideoFilePath);
-
-        return keyFrames;
+    // Called once for every key frame that has been analyzed
+    public interface ProgressListener {
+        void frameProcessed();
     }
 
-    private String writeToTempFile(byte[] videoBytes) {
-        FileOutputStream fos = null;
+    // Stage timings are recorded in the given trace, which is finished on return
+    public ExerciseReport processVideo(StoredUpload upload, int userId, VideoTrace trace, ProgressListener progressListener) {
+        trace.record(Stage.UPLOAD_WRITE, upload.getWriteNanos());
         try {
-            // Create a temporary file
-            File tempFile = File.createTempFile("temp_video", ".tmp");
-
-            // Write bytes to the temporary file
-            fos = new FileOutputStream(tempFile);
-            fos.write(videoBytes);
-
-            // Return the path of the temporary file
-            return tempFile.getAbsolutePath();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+            return videoResultCache.getOrCompute(userId, upload.getContentHash(),
+                    () -> analyzeVideo(upload.getPath(), upload.getContentHash(), userId, trace, progressListener));
         } finally {
-            try {
-                if (fos != null) {
-                    fos.close();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            // Delete the temporary file
+            videoUploadStore.delete(upload.getPath());
+            pipelineMetrics.finishTrace(trace);
         }
     }
 
-    private void deleteTempFile(String filePath) {
-        try {
-            Files.deleteIfExists(Paths.get(filePath));
-        } catch (IOException e) {
-            e.printStackTrace();
+    private ExerciseReport analyzeVideo(Path videoFile, String contentHash, int userId, VideoTrace trace,
+                                        ProgressListener progressListener) {
+        // Find user by userId
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            // Handle user not found
+            throw new IllegalArgumentException("unvalid user");
         }
-    }
-//    private List<byte[]> extractKeyFrames(byte[] videoBytes) {
-//        // Implement the logic to extract every 3rd frame from the video
-//        // This is a placeholder implementation
-//        return new ArrayList<>();
-//    }
-
-    private List<Coordinate> getCoordinatesFromFrame(byte[] frame) {
-        RestTemplate restTemplate = new RestTemplate();
-        String endpoint = "http://127.0.0.1:5000/upload";
 
+        // Create the video object; it is saved once analysis is done
+        Video video = new Video();
+        video.setUser(user);
+        video.setContentHash(contentHash);
+
+        // Stream the video through decode -> encode -> infer -> analyze.
+        // Each frame is analyzed for all exercises the moment its landmarks arrive.
+        PoseSequence landmarks = new PoseSequence();
+        MultiExerciseAnalyzer exerciseAnalyzer = exerciseRegistry.newAnalyzer();
+        PoseFrame view = new PoseFrame();
+        framePipeline.run(videoFile.toString(), poseEstimator, trace,
+                frame -> {
+                    long start = System.nanoTime();
+                    landmarks.addFrame(frame.getLandmarks(), 0);
+                    exerciseAnalyzer.accept(landmarks.frame(landmarks.getFrameCount() - 1, view));
+                    pipelineMetrics.record(Stage.ANALYSIS, System.nanoTime() - start, trace);
+                    progressListener.frameProcessed();
+                });
+
+        ExerciseReport report = exerciseAnalyzer.finish();
+
+        if (LEGACY_STORAGE.equals(storageMode)) {
+            // One Coordinate row per keypoint
+            video.setImages(toImages(landmarks));
+        } else {
+            video.setLandmarks(landmarks);
+        }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
+        // Add the results to the analysis attribute of the video
+        video.setAnalysis(report);
 
-        HttpEntity<byte[]> requestEntity = new HttpEntity<>(frame, headers);
-        ResponseEntity<String> response = restTemplate.postForEntity(endpoint, requestEntity, String.class);
+        // Save the video and its landmarks to the database in batched inserts
+        long persistStart = System.nanoTime();
+        videoBulkWriter.save(video);
+        pipelineMetrics.record(Stage.PERSIST, System.nanoTime() - persistStart, trace);
 
-        // Check if response is OK
-        if (response.getStatusCode() != HttpStatus.OK) {
-            // Handle error response
-            return new ArrayList<>();
-        }
+        return video.getAnalysis();
 
-        // Parse the response to create Coordinate objects
-        return parseCoordinates(response.getBody());
     }
 
-    private List<Coordinate> parseCoordinates(String json) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            List<Map<String, Double>> coordinatesList = mapper.readValue(json, new TypeReference<List<Map<String, Double>>>() {});
-
-            List<Coordinate> coordinates = new ArrayList<>();
-            String[] labels = {
-                    "Nose",
-                    "Left Eye Inner",
-                    "Left Eye",
-                    "Left Eye Outer",
-                    "Right Eye Inner",
-                    "Right Eye",
-                    "Right Eye Outer",
-                    "Left Ear",
-                    "Right Ear",
-                    "Mouth Left",
-                    "Mouth Right",
-                    "Left Shoulder",
-                    "Right Shoulder",
-                    "Left Elbow",
-                    "Right Elbow",
-                    "Left Wrist",
-                    "Right Wrist",
-                    "Left Pinky",
-                    "Right Pinky",
-                    "Left Index",
-                    "Right Index",
-                    "Left Thumb",
-                    "Right Thumb",
-                    "Left Hip",
-                    "Right Hip",
-                    "Left Knee",
-                    "Right Knee",
-                    "Left Ankle",
-                    "Right Ankle",
-                    "Left Heel",
-                    "Right Heel",
-                    "Left Foot Index",
-                    "Right Foot Index"
-            };
-            for (int i = 0; i < coordinatesList.size(); i++) {
-                Map<String, Double> coordinateMap = coordinatesList.get(i);
-                Coordinate coordinate = new Coordinate(
-                        labels[i],
-                        coordinateMap.get("x"),
-                        coordinateMap.get("y"),
-                        coordinateMap.get("z"),
-                        coordinateMap.get("visibility")
-                );
-                coordinates.add(coordinate);
-            }
-            return coordinates;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new ArrayList<>();
+    private List<Image> toImages(PoseSequence landmarks) {
+        List<Image> images = new ArrayList<>(landmarks.getFrameCount());
+        for (int i = 0; i < landmarks.getFrameCount(); i++) {
+            images.add(new Image(landmarks.toCoordinates(i)));
         }
+        return images;
     }
 }
-
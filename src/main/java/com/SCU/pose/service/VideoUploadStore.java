@@ -0,0 +1,114 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Puts uploaded videos on disk for OpenCV, which can only open files by path.
+// Uploads are streamed through an NIO channel so the video never sits on the
+// heap, and go to tmpfs (/dev/shm) when it is available. The content is
+// hashed on the way through, so duplicate uploads can be recognized without
+// reading the file again.
+@Component
+public class VideoUploadStore {
+
+    private static final Path SHARED_MEMORY_DIR = Paths.get("/dev/shm");
+
+    // Empty means /dev/shm if writable, otherwise java.io.tmpdir
+    @Value("${pose.upload.temp-dir:}")
+    private String tempDir;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    private Path directory;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (tempDir != null && !tempDir.isEmpty()) {
+            directory = Files.createDirectories(Paths.get(tempDir));
+        } else if (Files.isDirectory(SHARED_MEMORY_DIR) && Files.isWritable(SHARED_MEMORY_DIR)) {
+            directory = SHARED_MEMORY_DIR;
+        } else {
+            directory = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Stream the upload into a new temporary file and return it with its hash.
+    // The caller owns the file and must delete it.
+    public StoredUpload store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in);
+        }
+    }
+
+    public StoredUpload store(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        Path videoFile = createTempFile();
+        MessageDigest digest = newDigest();
+        try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+             FileChannel target = FileChannel.open(videoFile, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+                position += transferred;
+            }
+            long writeNanos = System.nanoTime() - start;
+            pipelineMetrics.record(Stage.UPLOAD_WRITE, writeNanos);
+            return new StoredUpload(videoFile, toHex(digest.digest()), writeNanos);
+        } catch (IOException | RuntimeException e) {
+            delete(videoFile);
+            throw e;
+        }
+    }
+
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "temp_video", ".tmp");
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    public void delete(Path videoFile) {
+        try {
+            Files.deleteIfExists(videoFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.service.VideoAnalysisService;
+import com.SCU.pose.service.VideoAnalysisService.PlankAnalysisResult;
+import com.SCU.pose.service.VideoAnalysisService.PushupAnalysisResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Throughput of the analyzers over synthetic landmark sequences of different
+// lengths (key frames per video). The sequences alternate push-up reps and
+// plank holds with a little jitter, and some frames have no landmarks.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnalysisBenchmark {
+
+    @Param({"300", "1800", "9000"})
+    private int frames;
+
+    private final VideoAnalysisService analysisService = new VideoAnalysisService();
+    private PoseSequence sequence;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(analysisService, "exerciseRegistry", new ExerciseRegistry());
+        sequence = syntheticSequence(frames, new Random(42));
+    }
+
+    @Benchmark
+    public PushupAnalysisResult analyzePushups() {
+        return analysisService.analyzePushups(sequence);
+    }
+
+    @Benchmark
+    public PlankAnalysisResult analyzePlanks() {
+        return analysisService.analyzePlanks(sequence);
+    }
+
+    // All registered exercises in one pass
+    @Benchmark
+    public ExerciseReport analyzeAll() {
+        return analysisService.analyze(sequence);
+    }
+
+    static PoseSequence syntheticSequence(int frames, Random random) {
+        PoseSequence sequence = new PoseSequence(frames);
+        float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        float[] missing = new float[PoseSequence.FRAME_STRIDE];
+        Arrays.fill(missing, Float.NaN);
+        for (int f = 0; f < frames; f++) {
+            if (random.nextInt(50) == 0) {
+                sequence.addFrame(missing, 0);
+                continue;
+            }
+            // 20 frames per rep, every fourth block of 100 frames is a plank hold
+            boolean plank = (f / 100) % 4 == 3;
+            double phase = plank ? 0 : Math.sin(f * 2 * Math.PI / 20);
+            for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+                int base = keypoint * PoseSequence.COMPONENTS;
+                frame[base + PoseSequence.X] = 0.3f + keypoint * 0.012f + jitter(random);
+                frame[base + PoseSequence.Y] = 0.5f + jitter(random);
+                frame[base + PoseSequence.Z] = -0.2f + jitter(random);
+                frame[base + PoseSequence.VISIBILITY] = 0.9f;
+            }
+            frame[PoseFrame.LEFT_ELBOW * PoseSequence.COMPONENTS + PoseSequence.Y] = (float) (0.5 + 0.1 * phase);
+            frame[PoseFrame.RIGHT_HIP * PoseSequence.COMPONENTS + PoseSequence.Y] = 0.52f + jitter(random);
+            frame[PoseFrame.RIGHT_ANKLE * PoseSequence.COMPONENTS + PoseSequence.Y] = 0.54f + jitter(random);
+            sequence.addFrame(frame, 0);
+        }
+        return sequence;
+    }
+
+    private static float jitter(Random random) {
+        return (float) (random.nextGaussian() * 0.005);
+    }
+}
@@ -0,0 +1,43 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.service.VideoAnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+// Throughput of the joint angle computation used by the plank scoring and
+// the shared frame features
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CalculateAngleBenchmark {
+
+    private double[] points;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Triplets of random points, so the JIT cannot fold the inputs
+        Random random = new Random(7);
+        points = new double[9 * 1024];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double calculateAngle() {
+        int i = next;
+        next = (next + 9) % points.length;
+        return VideoAnalysisService.calculateAngle(points[i], points[i + 1], points[i + 2],
+                points[i + 3], points[i + 4], points[i + 5],
+                points[i + 6], points[i + 7], points[i + 8]);
+    }
+}
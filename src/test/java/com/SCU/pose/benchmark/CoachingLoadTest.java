@@ -0,0 +1,169 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.config.WebSocketConfig;
+import com.SCU.pose.controller.CoachingController;
+import com.SCU.pose.dto.CoachingUpdate;
+import com.SCU.pose.dto.LandmarkFrameMessage;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.service.CoachingService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Load test for the STOMP coaching endpoint. Opens many concurrent sessions,
+// streams synthetic push-up landmark frames from each at a fixed rate, and
+// reports per-message round-trip latency percentiles.
+//
+// Arguments (all optional): sessions, frames per session, frames per second,
+// and a ws:// URL. Without a URL, only the coaching endpoint is started
+// in-process on a random port, so no database is needed.
+public class CoachingLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int framesPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        int framesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        String url = args.length > 3 ? args[3] : null;
+
+        ConfigurableApplicationContext server = null;
+        if (url == null) {
+            server = new SpringApplication(EmbeddedCoachingServer.class).run("--server.port=0", "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN");
+            url = "ws://localhost:" + server.getEnvironment().getProperty("local.server.port") + "/coach";
+        }
+
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.initialize();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setTaskScheduler(heartbeatScheduler);
+
+        long[] latencies = new long[sessions * Math.max(0, framesPerSession - framesPerSecond)];
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch allReceived = new CountDownLatch(sessions * framesPerSession);
+
+        System.out.printf("Connecting %d sessions to %s%n", sessions, url);
+        List<StompSession> stompSessions = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            StompSession session = stompClient.connect(url, new StompSessionHandlerAdapter() {
+            }).get(30, TimeUnit.SECONDS);
+            session.subscribe("/user/queue/coaching", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return CoachingUpdate.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    CoachingUpdate update = (CoachingUpdate) payload;
+                    // The first second warms up the JIT and connections
+                    if (update.getSequence() >= framesPerSecond) {
+                        int slot = received.getAndIncrement();
+                        if (slot < latencies.length) {
+                            latencies[slot] = System.nanoTime() - update.getSentAt();
+                        }
+                    }
+                    allReceived.countDown();
+                }
+            });
+            stompSessions.add(session);
+        }
+        // Let the subscriptions register before the first frame
+        Thread.sleep(500);
+
+        System.out.printf("Streaming %d frames per session at %d fps%n", framesPerSession, framesPerSecond);
+        ScheduledExecutorService sender = Executors.newScheduledThreadPool(4);
+        AtomicInteger tick = new AtomicInteger();
+        long start = System.nanoTime();
+        sender.scheduleAtFixedRate(() -> {
+            int sequence = tick.getAndIncrement();
+            if (sequence >= framesPerSession) {
+                return;
+            }
+            float[] landmarks = pushupFrame(sequence);
+            for (StompSession session : stompSessions) {
+                session.send("/app/coach/frame", new LandmarkFrameMessage(sequence, System.nanoTime(), landmarks));
+            }
+        }, 0, 1_000_000 / framesPerSecond, TimeUnit.MICROSECONDS);
+
+        boolean complete = allReceived.await(framesPerSession / framesPerSecond + 60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sender.shutdownNow();
+
+        int count = Math.min(received.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long total = (long) sessions * framesPerSession;
+        System.out.printf("%d/%d updates received%s in %.1f s (%.0f msg/s), %d measured after warm-up%n",
+                total - allReceived.getCount(), total, complete ? "" : " (timed out)", seconds,
+                (total - allReceived.getCount()) / seconds, count);
+        System.out.printf("latency ms  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), percentile(sorted, 1.0));
+
+        for (StompSession session : stompSessions) {
+            session.disconnect();
+        }
+        stompClient.stop();
+        heartbeatScheduler.shutdown();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Elbow dropping below the shoulder and back up every 10 frames
+    private static float[] pushupFrame(int sequence) {
+        float[] landmarks = new float[PoseSequence.FRAME_STRIDE];
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            int base = keypoint * PoseSequence.COMPONENTS;
+            landmarks[base + PoseSequence.X] = 0.5f;
+            landmarks[base + PoseSequence.Y] = 0.5f;
+            landmarks[base + PoseSequence.VISIBILITY] = 0.9f;
+        }
+        boolean down = sequence % 10 >= 5;
+        landmarks[PoseFrame.LEFT_ELBOW * PoseSequence.COMPONENTS + PoseSequence.Y] = down ? 0.6f : 0.4f;
+        landmarks[PoseFrame.RIGHT_HIP * PoseSequence.COMPONENTS + PoseSequence.Y] = 0.52f;
+        return landmarks;
+    }
+
+    // Only the coaching endpoint, without JPA or the video pipeline.
+    // @TestConfiguration keeps it out of component scanning, so its exclusions
+    // never apply to the real application context under com.SCU.pose.
+    @TestConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @Import({WebSocketConfig.class, CoachingController.class, CoachingService.class, ExerciseRegistry.class})
+    static class EmbeddedCoachingServer {
+    }
+}
@@ -0,0 +1,83 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.pipeline.FrameEncoder;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Measures encode time and payload size for each frame preparation setting,
+// to weigh encode CPU against transfer cost. Run the main method; pass a
+// resolution such as 1920x1080 to change the synthetic source frame size.
+public class FrameEncodingBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    public static void main(String[] args) {
+        nu.pattern.OpenCV.loadLocally();
+
+        int width = 1920;
+        int height = 1080;
+        if (args.length > 0) {
+            String[] size = args[0].split("x");
+            width = Integer.parseInt(size[0]);
+            height = Integer.parseInt(size[1]);
+        }
+        Mat frame = syntheticFrame(width, height);
+
+        List<FrameEncoder> settings = Arrays.asList(
+                new FrameEncoder("jpg", 0, 0, 95, 1),
+                new FrameEncoder("jpg", 0, 0, 80, 1),
+                new FrameEncoder("jpg", 640, 640, 95, 1),
+                new FrameEncoder("jpg", 640, 640, 80, 1),
+                new FrameEncoder("jpg", 640, 640, 60, 1),
+                new FrameEncoder("jpg", 256, 256, 80, 1),
+                new FrameEncoder("png", 640, 640, 80, 1),
+                new FrameEncoder("png", 256, 256, 80, 1),
+                new FrameEncoder("bmp", 640, 640, 80, 1),
+                new FrameEncoder("bmp", 256, 256, 80, 1)
+        );
+
+        System.out.printf("Source frame %dx%d, %d iterations per setting%n", width, height, MEASURED_ITERATIONS);
+        System.out.printf("%-22s %14s %14s%n", "setting", "encode us/op", "payload bytes");
+        for (FrameEncoder encoder : settings) {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                encoder.encode(frame);
+            }
+            long payload = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                payload = encoder.encode(frame).length;
+            }
+            long micros = (System.nanoTime() - start) / 1000 / MEASURED_ITERATIONS;
+            System.out.printf("%-22s %14d %14d%n", encoder, micros, payload);
+        }
+        frame.release();
+    }
+
+    // Gradient background with a figure-like block and mild sensor noise, so
+    // compressed sizes are in the range of real footage
+    static Mat syntheticFrame(int width, int height) {
+        Mat frame = new Mat(height, width, CvType.CV_8UC3);
+        for (int row = 0; row < height; row++) {
+            int shade = 60 + row * 120 / height;
+            Imgproc.line(frame, new Point(0, row), new Point(width - 1, row), new Scalar(shade, shade - 20, shade - 40));
+        }
+        Imgproc.rectangle(frame, new Point(width * 0.4, height * 0.2), new Point(width * 0.6, height * 0.9),
+                new Scalar(30, 90, 200), -1);
+        Imgproc.circle(frame, new Point(width * 0.5, height * 0.15), height / 14, new Scalar(150, 170, 220), -1);
+
+        Mat noise = new Mat(height, width, CvType.CV_8UC3);
+        Core.randn(noise, 0, 6);
+        Core.add(frame, noise, frame);
+        noise.release();
+        return frame;
+    }
+}
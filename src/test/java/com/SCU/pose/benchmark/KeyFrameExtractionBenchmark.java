@@ -0,0 +1,96 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.pipeline.KeyFrameExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoWriter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Decoding and key frame sampling of a generated test video: a figure moving
+// up and down for the first half, then holding still. Each invocation decodes
+// the whole video; the handler just releases the key frames.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KeyFrameExtractionBenchmark {
+
+    private static final int FRAMES = 150;
+    private static final double FPS = 30;
+
+    @Param({"fixed", "adaptive"})
+    private String samplingMode;
+
+    @Param({"640x360", "1280x720"})
+    private String resolution;
+
+    private final KeyFrameExtractor keyFrameExtractor = new KeyFrameExtractor();
+    private Path video;
+
+    @Setup
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(keyFrameExtractor, "samplingMode", samplingMode);
+        ReflectionTestUtils.setField(keyFrameExtractor, "keyFrameInterval", 3);
+        ReflectionTestUtils.setField(keyFrameExtractor, "minStride", 2);
+        ReflectionTestUtils.setField(keyFrameExtractor, "maxStride", 12);
+        ReflectionTestUtils.setField(keyFrameExtractor, "motionThreshold", 2.0);
+
+        String[] size = resolution.split("x");
+        video = Files.createTempFile("benchmark_video", ".avi");
+        writeVideo(video, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(video);
+    }
+
+    @Benchmark
+    public int extractKeyFrames() throws InterruptedException {
+        return keyFrameExtractor.extractKeyFrames(video.toString(), (frameIndex, frame) -> frame.release());
+    }
+
+    static void writeVideo(Path path, int width, int height) {
+        VideoWriter writer = new VideoWriter(path.toString(), VideoWriter.fourcc('M', 'J', 'P', 'G'), FPS, new Size(width, height));
+        if (!writer.isOpened()) {
+            throw new IllegalStateException("Cannot write test video " + path);
+        }
+        Mat frame = new Mat(height, width, CvType.CV_8UC3);
+        try {
+            for (int i = 0; i < FRAMES; i++) {
+                double offset = i < FRAMES / 2 ? Math.sin(i * 2 * Math.PI / 30) * height * 0.15 : 0;
+                frame.setTo(new Scalar(70, 60, 50));
+                Imgproc.rectangle(frame, new Point(width * 0.4, height * 0.3 + offset),
+                        new Point(width * 0.6, height * 0.8 + offset), new Scalar(30, 90, 200), -1);
+                Imgproc.circle(frame, new Point(width * 0.5, height * 0.2 + offset), height / 14, new Scalar(150, 170, 220), -1);
+                writer.write(frame);
+            }
+        } finally {
+            frame.release();
+            writer.release();
+        }
+    }
+}
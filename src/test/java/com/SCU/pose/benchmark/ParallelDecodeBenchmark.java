@@ -0,0 +1,83 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.pipeline.KeyFrameExtractor;
+import com.SCU.pose.pipeline.SyntheticVideo;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decode throughput of one long video by number of decode threads: sequential
+// decoding first, then parallel segment decoding with 1, 2, 4, ... threads up
+// to the number of cores (and at least 4). The handler only releases the key
+// frames, so decoding and sampling are all that is measured.
+//
+// Arguments: video seconds (default 120), resolution (default 1280x720),
+// sampling mode (default adaptive), runs per setting (default 3; the best
+// run is reported).
+public class ParallelDecodeBenchmark {
+
+    private static final int SEGMENT_FRAMES = 64;
+
+    public static void main(String[] args) throws Exception {
+        nu.pattern.OpenCV.loadLocally();
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+        String[] size = (args.length > 1 ? args[1] : "1280x720").split("x");
+        String samplingMode = args.length > 2 ? args[2] : "adaptive";
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int frames = (int) (seconds * SyntheticVideo.FPS);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Path video = Files.createTempFile("decode_benchmark", ".avi");
+        try {
+            SyntheticVideo.write(video, Integer.parseInt(size[0]), Integer.parseInt(size[1]), frames, 42);
+            System.out.printf("%d frames at %sx%s, %s sampling, %d cores%n", frames, size[0], size[1], samplingMode, cores);
+
+            double sequential = measure(video, samplingMode, "sequential", 1, frames, runs, 0);
+            List<Integer> threadCounts = new ArrayList<>();
+            for (int threads = 1; threads <= Math.max(cores, 4); threads *= 2) {
+                threadCounts.add(threads);
+            }
+            if (!threadCounts.contains(cores)) {
+                threadCounts.add(cores);
+            }
+            for (int threads : threadCounts) {
+                measure(video, samplingMode, "parallel", threads, frames, runs, sequential);
+            }
+        } finally {
+            Files.deleteIfExists(video);
+        }
+    }
+
+    // Returns the best frames/s over the runs
+    private static double measure(Path video, String samplingMode, String decodeMode, int threads, int frames,
+                                  int runs, double baseline) throws InterruptedException {
+        KeyFrameExtractor extractor = new KeyFrameExtractor();
+        ReflectionTestUtils.setField(extractor, "samplingMode", samplingMode);
+        ReflectionTestUtils.setField(extractor, "keyFrameInterval", 3);
+        ReflectionTestUtils.setField(extractor, "minStride", 2);
+        ReflectionTestUtils.setField(extractor, "maxStride", 12);
+        ReflectionTestUtils.setField(extractor, "motionThreshold", 2.0);
+        ReflectionTestUtils.setField(extractor, "decodeMode", decodeMode);
+        ReflectionTestUtils.setField(extractor, "decodeThreads", threads);
+        ReflectionTestUtils.setField(extractor, "segmentFrames", SEGMENT_FRAMES);
+        ReflectionTestUtils.setField(extractor, "segmentBuffer", 16);
+        try {
+            double best = 0;
+            int keyFrames = 0;
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                keyFrames = extractor.extractKeyFrames(video.toString(), (frameIndex, frame) -> frame.release());
+                best = Math.max(best, frames / ((System.nanoTime() - start) / 1e9));
+            }
+            String label = "sequential".equals(decodeMode) ? "sequential" : "parallel x" + threads;
+            System.out.printf("%-14s %9.0f frames/s  %6d key frames%s%n", label, best, keyFrames,
+                    baseline > 0 ? String.format("  %5.2fx", best / baseline) : "");
+            return best;
+        } finally {
+            extractor.shutdown();
+        }
+    }
+}
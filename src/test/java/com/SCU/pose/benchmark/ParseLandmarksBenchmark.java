@@ -0,0 +1,69 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.inference.PoseInferenceClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Throughput and allocation of decoding pose-service responses: one frame of
+// 33 landmarks as /upload returns it, and a batch of 8 from /upload_batch.
+// Values carry full double precision like MediaPipe's output.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParseLandmarksBenchmark {
+
+    private static final int BATCH_SIZE = 8;
+
+    private final PoseInferenceClient client = new PoseInferenceClient();
+    private String frameJson;
+    private String batchJson;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        frameJson = landmarksJson(random);
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (i > 0) {
+                batch.append(", ");
+            }
+            batch.append(landmarksJson(random));
+        }
+        batchJson = batch.append(']').toString();
+    }
+
+    @Benchmark
+    public float[] parseLandmarks() {
+        return client.parseLandmarks(frameJson);
+    }
+
+    @Benchmark
+    public List<float[]> parseBatch() {
+        return client.parseBatch(batchJson);
+    }
+
+    static String landmarksJson(Random random) {
+        StringBuilder json = new StringBuilder("[");
+        for (int keypoint = 0; keypoint < 33; keypoint++) {
+            if (keypoint > 0) {
+                json.append(", ");
+            }
+            json.append(String.format(Locale.ROOT, "{\"x\": %s, \"y\": %s, \"z\": %s, \"visibility\": %s}",
+                    0.2 + random.nextDouble() * 0.6,
+                    0.1 + random.nextDouble() * 0.8,
+                    -0.5 + random.nextDouble(),
+                    0.5 + random.nextDouble() * 0.5));
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.Image;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.model.User;
+import com.SCU.pose.model.Video;
+import com.SCU.pose.repository.IdSequenceAlignment;
+import com.SCU.pose.repository.UserRepository;
+import com.SCU.pose.repository.VideoBulkWriter;
+import com.SCU.pose.repository.VideoRepository;
+import com.SCU.pose.service.UserStatsService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows/sec for VideoBulkWriter.save against a real PostgreSQL, with the
+// Hibernate and driver settings of before and after batching side by side:
+//
+//  unbatched: hibernate.jdbc.batch_size=0, no order_inserts, and a plain JDBC
+//             URL, so every Image and Coordinate is its own round-trip
+//  batched:   the settings of application.properties: batches of 50 with
+//             order_inserts, and reWriteBatchedInserts turning each batch
+//             into a multi-row INSERT
+//
+// Both write the same graphs through the same entities, whose ids come from
+// the pooled sequences either way; the IDENTITY mapping they replaced can no
+// longer be configured, so the unbatched numbers are a best case for it.
+//
+// Arguments (all optional): videos per configuration, key frames per video,
+// storage ("legacy" for one Coordinate row per keypoint, as the batching was
+// measured with, or "packed"), and the JDBC URL, user and password (by
+// default those of application.properties). The schema is created or updated
+// as the application does. Writes to the database it is pointed at: the
+// videos and statistics go to a user created for the run, and are deleted
+// with it afterwards.
+public class PersistenceBenchmark {
+
+    private static final String DEFAULT_URL = "jdbc:postgresql://localhost:7249/pose";
+
+    public static void main(String[] args) {
+        int videos = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 1800;
+        boolean legacyStorage = !(args.length > 2 && "packed".equals(args[2]));
+        String url = args.length > 3 ? args[3] : DEFAULT_URL;
+        String user = args.length > 4 ? args[4] : "postgres";
+        String password = args.length > 5 ? args[5] : "7249";
+
+        PoseSequence landmarks = landmarks(frames);
+        // A video row, plus an Image and its Coordinates per frame in legacy storage
+        long rowsPerVideo = legacyStorage ? 1 + (long) frames * (1 + PoseSequence.KEYPOINTS) : 1;
+        System.out.printf("%d videos of %d key frames, %s storage, %d rows per video%n",
+                videos, frames, legacyStorage ? "legacy" : "packed", rowsPerVideo);
+
+        run("unbatched", videos, landmarks, legacyStorage, rowsPerVideo, user, password,
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                "--spring.jpa.properties.hibernate.order_inserts=false",
+                "--spring.jpa.properties.hibernate.order_updates=false");
+        run("batched", videos, landmarks, legacyStorage, rowsPerVideo, user, password,
+                "--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true");
+    }
+
+    private static void run(String label, int videos, PoseSequence landmarks, boolean legacyStorage, long rowsPerVideo,
+                            String user, String password, String... settings) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.main.web-application-type=none");
+        args.add("--spring.main.banner-mode=off");
+        args.add("--logging.level.root=WARN");
+        args.add("--spring.datasource.username=" + user);
+        args.add("--spring.datasource.password=" + password);
+        for (String setting : settings) {
+            args.add(setting);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplication(PersistenceContext.class)
+                .run(args.toArray(new String[0]))) {
+            VideoBulkWriter writer = context.getBean(VideoBulkWriter.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            User owner = userRepository.save(new User("persistence-benchmark-" + System.nanoTime(), ""));
+            try {
+                // Warm up the connection pool, statement caches and the JIT
+                writer.save(video(owner, landmarks, legacyStorage, -1));
+                long nanos = 0;
+                for (int i = 0; i < videos; i++) {
+                    Video video = video(owner, landmarks, legacyStorage, i);
+                    long start = System.nanoTime();
+                    writer.save(video);
+                    nanos += System.nanoTime() - start;
+                }
+                report(label, videos, rowsPerVideo * videos, nanos);
+            } finally {
+                delete(jdbcTemplate, owner.getId());
+            }
+        }
+    }
+
+    private static void report(String label, int videos, long rows, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-10s %9d rows in %7.2f s = %10.0f rows/sec, %8.1f ms per video%n",
+                label, rows, seconds, rows / seconds, nanos / 1e6 / videos);
+    }
+
+    private static PoseSequence landmarks(int frames) {
+        PoseSequence landmarks = new PoseSequence(frames);
+        float[] frame = new float[PoseSequence.FRAME_STRIDE];
+        for (int i = 0; i < frames; i++) {
+            for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+                int offset = keypoint * PoseSequence.COMPONENTS;
+                frame[offset + PoseSequence.X] = (float) (0.3 + keypoint * 0.01 + Math.sin(i * 0.2) * 0.05);
+                frame[offset + PoseSequence.Y] = (float) (0.2 + keypoint * 0.02);
+                frame[offset + PoseSequence.Z] = -0.4f;
+                frame[offset + PoseSequence.VISIBILITY] = 0.95f;
+            }
+            landmarks.addFrame(frame, 0);
+        }
+        return landmarks;
+    }
+
+    // A new graph each time, as VideoService builds it after analysis
+    private static Video video(User owner, PoseSequence landmarks, boolean legacyStorage, int index) {
+        Video video = new Video();
+        video.setUser(owner);
+        video.setContentHash("persistence-benchmark-" + index);
+        if (legacyStorage) {
+            List<Image> images = new ArrayList<>(landmarks.getFrameCount());
+            for (int i = 0; i < landmarks.getFrameCount(); i++) {
+                images.add(new Image(landmarks.toCoordinates(i)));
+            }
+            video.setImages(images);
+        } else {
+            video.setLandmarks(landmarks);
+        }
+        ExerciseReport report = new ExerciseReport(landmarks.getFrameCount());
+        report.addExercise(new ExerciseResult("pushup", ExerciseResult.REPS, 10, 0.8));
+        video.setAnalysis(report);
+        return video;
+    }
+
+    // Outside the measurement; plain statements rather than cascading through
+    // every entity
+    private static void delete(JdbcTemplate jdbcTemplate, int userId) {
+        String videoIds = "select id from video where user_id = " + userId;
+        jdbcTemplate.update("delete from coordinate where image_id in (select id from image where video_id in ("
+                + videoIds + "))");
+        jdbcTemplate.update("delete from image where video_id in (" + videoIds + ")");
+        jdbcTemplate.update("delete from video where user_id = " + userId);
+        jdbcTemplate.update("delete from user_exercise_stats where user_id = " + userId);
+        jdbcTemplate.update("delete from users where id = " + userId);
+    }
+
+    // The writer and what it needs, on the application's entities and
+    // repositories; no web server, pipeline or startup backfill
+    @TestConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Video.class)
+    @EnableJpaRepositories(basePackageClasses = VideoRepository.class)
+    @Import({VideoBulkWriter.class, UserStatsService.class, IdSequenceAlignment.class})
+    static class PersistenceContext {
+    }
+}
@@ -0,0 +1,272 @@
+package com.SCU.pose.benchmark;
+
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.controller.VideoController;
+import com.SCU.pose.inference.DnnPoseEstimator;
+import com.SCU.pose.inference.PoseInferenceClient;
+import com.SCU.pose.inference.StandInPoseServer;
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.model.User;
+import com.SCU.pose.pipeline.FrameEncoder;
+import com.SCU.pose.pipeline.FramePipeline;
+import com.SCU.pose.pipeline.KeyFrameExtractor;
+import com.SCU.pose.pipeline.SyntheticVideo;
+import com.SCU.pose.repository.ImageRepository;
+import com.SCU.pose.repository.UserExerciseStatsRepository;
+import com.SCU.pose.repository.UserRepository;
+import com.SCU.pose.repository.VideoBulkWriter;
+import com.SCU.pose.repository.VideoRepository;
+import com.SCU.pose.service.ChunkedUploadService;
+import com.SCU.pose.service.UserStatsService;
+import com.SCU.pose.service.VideoAnalysisService;
+import com.SCU.pose.service.VideoJobService;
+import com.SCU.pose.service.VideoQueryService;
+import com.SCU.pose.service.VideoResultCache;
+import com.SCU.pose.service.VideoService;
+import com.SCU.pose.service.VideoUploadStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.Mockito;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.autoconfigure.metrics.orm.jpa.HibernateMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// End-to-end load test for POST /video/process. Generates one synthetic video
+// per upload (see SyntheticVideo), fires them from a number of concurrent
+// clients, and reports videos/min, video frames/sec, upload round-trip latency
+// percentiles and the server's heap high-water mark.
+//
+// Arguments (all optional): uploads, concurrent clients, seconds of video per
+// upload, stand-in pose service latency and jitter in ms, and the base URL of
+// a running server (e.g. http://localhost:8080) with userId 1 in its database.
+// Without a URL the video endpoint is started in-process on a random port
+// against a stand-in pose server, with the user and video repositories
+// stubbed out, so neither PostgreSQL nor the Python service is needed; the
+// database write is then not part of the measurement. Pipeline settings can
+// be overridden with system properties, e.g. -Dpose.roi.enabled=false to
+// send whole key frames to the stand-in pose server.
+public class PipelineLoadTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 360;
+    private static final int USER_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int videoSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long latencyMs = args.length > 3 ? Long.parseLong(args[3]) : 30;
+        long jitterMs = args.length > 4 ? Long.parseLong(args[4]) : 20;
+        String url = args.length > 5 ? args[5] : null;
+
+        nu.pattern.OpenCV.loadLocally();
+        int framesPerVideo = (int) (videoSeconds * SyntheticVideo.FPS);
+        System.out.printf("Generating %d videos of %d frames at %dx%d%n", uploads, framesPerVideo, WIDTH, HEIGHT);
+        Path directory = Files.createTempDirectory("pose_load_test");
+        List<Path> videos = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            Path video = directory.resolve("synthetic_" + i + ".avi");
+            SyntheticVideo.write(video, WIDTH, HEIGHT, framesPerVideo, i);
+            videos.add(video);
+        }
+
+        StandInPoseServer poseServer = null;
+        ConfigurableApplicationContext server = null;
+        try {
+            LongSupplier heapUsed;
+            if (url == null) {
+                poseServer = new StandInPoseServer(latencyMs, jitterMs);
+                server = new SpringApplication(EmbeddedVideoServer.class).run("--server.port=0", "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--pose.inference.url=" + poseServer.url("/upload"),
+                        "--pose.inference.batch-url=" + poseServer.url("/upload_batch"));
+                url = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                heapUsed = () -> memory.getHeapMemoryUsage().getUsed();
+            } else {
+                heapUsed = actuatorHeapUsed(url);
+            }
+            drive(url, videos, clients, framesPerVideo, heapUsed);
+            if (poseServer != null) {
+                System.out.printf("pose service requests: %d single, %d batch%n",
+                        poseServer.getSingleRequests(), poseServer.getBatchRequests());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            if (poseServer != null) {
+                poseServer.close();
+            }
+            for (Path video : videos) {
+                Files.deleteIfExists(video);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void drive(String url, List<Path> videos, int clients, int framesPerVideo, LongSupplier heapUsed)
+            throws Exception {
+        // Sample the heap throughout the run; a sample every 50 ms catches the
+        // peaks between collections closely enough for comparing runs
+        AtomicLong heapHighWater = new AtomicLong();
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(() -> heapHighWater.accumulateAndGet(heapUsed.getAsLong(), Math::max),
+                0, 50, TimeUnit.MILLISECONDS);
+
+        int uploads = videos.size();
+        System.out.printf("Uploading %d videos from %d clients to %s%n", uploads, clients, url);
+        RestTemplate restTemplate = new RestTemplate();
+        String processUrl = url + "/video/process";
+        long[] latencies = new long[uploads];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService driver = Executors.newFixedThreadPool(clients);
+        List<Future<?>> running = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int client = 0; client < clients; client++) {
+                running.add(driver.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < uploads) {
+                        long sent = System.nanoTime();
+                        try {
+                            upload(restTemplate, processUrl, videos.get(index));
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                            System.out.printf("upload %d failed: %s%n", index, e.getMessage());
+                        }
+                        latencies[index] = System.nanoTime() - sent;
+                    }
+                }));
+            }
+            for (Future<?> client : running) {
+                client.get();
+            }
+        } finally {
+            driver.shutdownNow();
+            heapSampler.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int succeeded = uploads - failures.get();
+        System.out.printf("%d/%d videos processed in %.1f s: %.1f videos/min, %.0f frames/s%n",
+                succeeded, uploads, seconds, succeeded * 60 / seconds, (double) succeeded * framesPerVideo / seconds);
+        System.out.printf("latency ms  p50 %.0f  p90 %.0f  p99 %.0f  max %.0f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        System.out.printf("heap high-water %.1f MB%n", heapHighWater.get() / 1048576.0);
+    }
+
+    private static void upload(RestTemplate restTemplate, String processUrl, Path video) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new FileSystemResource(video.toFile()));
+        body.add("userId", String.valueOf(USER_ID));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        restTemplate.postForEntity(processUrl, new HttpEntity<>(body, headers), String.class);
+    }
+
+    // Heap in use as reported by a remote server's Actuator metrics endpoint
+    private static LongSupplier actuatorHeapUsed(String url) {
+        RestTemplate restTemplate = new RestTemplate();
+        ObjectMapper objectMapper = new ObjectMapper();
+        String metricUrl = url + "/actuator/metrics/jvm.memory.used?tag=area:heap";
+        return () -> {
+            try {
+                JsonNode metric = objectMapper.readTree(restTemplate.getForObject(metricUrl, String.class));
+                return (long) metric.path("measurements").path(0).path("value").asDouble();
+            } catch (Exception e) {
+                return 0;
+            }
+        };
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // The video endpoint and pipeline without JPA: every user id resolves to a
+    // user, no earlier results exist, and saving a video does nothing.
+    // @TestConfiguration keeps it out of component scanning, so these mocks
+    // never reach the real application context under com.SCU.pose.
+    @TestConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            HibernateMetricsAutoConfiguration.class})
+    @Import({VideoController.class, VideoService.class, VideoJobService.class, VideoUploadStore.class, ChunkedUploadService.class,
+            VideoQueryService.class, VideoAnalysisService.class, VideoResultCache.class, FramePipeline.class, KeyFrameExtractor.class, FrameEncoder.class,
+            PoseInferenceClient.class, DnnPoseEstimator.class, ExerciseRegistry.class, PipelineMetrics.class,
+            UserStatsService.class})
+    static class EmbeddedVideoServer {
+
+        @Bean
+        UserRepository userRepository() {
+            UserRepository userRepository = Mockito.mock(UserRepository.class);
+            Mockito.when(userRepository.findById(Mockito.anyInt()))
+                    .thenAnswer(invocation -> Optional.of(new User("load-test", "")));
+            return userRepository;
+        }
+
+        @Bean
+        VideoRepository videoRepository() {
+            return Mockito.mock(VideoRepository.class);
+        }
+
+        @Bean
+        ImageRepository imageRepository() {
+            return Mockito.mock(ImageRepository.class);
+        }
+
+        @Bean
+        VideoBulkWriter videoBulkWriter() {
+            return Mockito.mock(VideoBulkWriter.class);
+        }
+
+        @Bean
+        UserExerciseStatsRepository userExerciseStatsRepository() {
+            return Mockito.mock(UserExerciseStatsRepository.class);
+        }
+
+        // Only there to satisfy the writer's @PersistenceContext field
+        @Bean
+        EntityManagerFactory entityManagerFactory() {
+            return Mockito.mock(EntityManagerFactory.class);
+        }
+    }
+}
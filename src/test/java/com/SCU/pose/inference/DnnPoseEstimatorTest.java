@@ -0,0 +1,177 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.model.PoseSequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DnnPoseEstimatorTest {
+
+    private static final int INPUT_SIZE = 8;
+
+    @TempDir
+    Path tempDir;
+
+    private DnnPoseEstimator estimator;
+
+    @AfterEach
+    void tearDown() {
+        estimator.shutdown();
+    }
+
+    // The model just flattens the blob, so each frame's output is its R, G
+    // and B planes scaled to [0, 1]: landmark 0 reads x, y, z and visibility
+    // from the first four red pixels
+    private void startEstimator(int batchSize, double minVisibility) throws Exception {
+        startEstimator(batchSize, 50, minVisibility);
+    }
+
+    private void startEstimator(int batchSize, long batchMaxWaitMs, double minVisibility) throws Exception {
+        Path model = tempDir.resolve("flatten.onnx");
+        Files.write(model, flattenModel());
+        estimator = new DnnPoseEstimator();
+        ReflectionTestUtils.setField(estimator, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(estimator, "modelPath", model.toString());
+        ReflectionTestUtils.setField(estimator, "inputSize", INPUT_SIZE);
+        ReflectionTestUtils.setField(estimator, "outputStride", 5);
+        ReflectionTestUtils.setField(estimator, "threads", 1);
+        ReflectionTestUtils.setField(estimator, "batchSize", batchSize);
+        ReflectionTestUtils.setField(estimator, "batchMaxWaitMs", batchMaxWaitMs);
+        ReflectionTestUtils.setField(estimator, "minVisibility", minVisibility);
+        estimator.init();
+    }
+
+    private CompletableFuture<float[]> estimate(double red) throws InterruptedException {
+        Mat frame = new Mat(32, 48, CvType.CV_8UC3, new Scalar(0, 0, red));
+        try {
+            return estimator.estimateAsync(estimator.prepare(frame));
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    void batchedFramesGetTheirOwnLandmarks() throws Exception {
+        startEstimator(4, 0);
+
+        List<CompletableFuture<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(estimate(i % 2 == 0 ? 255 : 0));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            float[] landmarks = results.get(i).get(5, TimeUnit.SECONDS);
+            float red = i % 2 == 0 ? 1 : 0;
+            assertEquals(PoseSequence.FRAME_STRIDE, landmarks.length);
+            assertEquals(red / INPUT_SIZE, landmarks[PoseSequence.X], 1e-6);
+            assertEquals(red / INPUT_SIZE, landmarks[PoseSequence.Z], 1e-6);
+            assertEquals(1 / (1 + Math.exp(-red)), landmarks[PoseSequence.VISIBILITY], 1e-6);
+        }
+    }
+
+    @Test
+    void lowVisibilityMeansNoPerson() throws Exception {
+        startEstimator(1, 0.6);
+
+        float[] landmarks = estimate(0).get(5, TimeUnit.SECONDS);
+
+        assertEquals(PoseSequence.FRAME_STRIDE, landmarks.length);
+        assertTrue(Float.isNaN(landmarks[PoseSequence.X]));
+    }
+
+    @Test
+    void shutdownFailsFramesNotYetInferred() throws Exception {
+        // The worker holds the first frames while it waits for a full batch
+        startEstimator(4, 10_000, 0);
+        CompletableFuture<float[]> first = estimate(255);
+        CompletableFuture<float[]> second = estimate(0);
+
+        estimator.shutdown();
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> estimate(255));
+    }
+
+    // ONNX model with one Flatten node from input [N, 3, 8, 8] to output [N, 192]
+    private static byte[] flattenModel() {
+        byte[] axis = message(field(1, "axis"), varint(3, 1), varint(20, 2));
+        byte[] node = message(field(1, "input"), field(2, "output"), field(4, "Flatten"), field(5, axis));
+        byte[] input = valueInfo("input", dim("N"), dim(3), dim(INPUT_SIZE), dim(INPUT_SIZE));
+        byte[] output = valueInfo("output", dim("N"), dim(3 * INPUT_SIZE * INPUT_SIZE));
+        byte[] graph = message(field(1, node), field(2, "flatten"), field(11, input), field(12, output));
+        return message(varint(1, 6), field(7, graph), field(8, message(field(1, ""), varint(2, 11))));
+    }
+
+    private static byte[] valueInfo(String name, byte[]... dims) {
+        byte[][] shape = new byte[dims.length][];
+        for (int i = 0; i < dims.length; i++) {
+            shape[i] = field(1, dims[i]);
+        }
+        byte[] tensor = message(varint(1, 1), field(2, message(shape)));
+        return message(field(1, name), field(2, message(field(1, tensor))));
+    }
+
+    private static byte[] dim(long value) {
+        return varint(1, value);
+    }
+
+    private static byte[] dim(String param) {
+        return field(2, param);
+    }
+
+    private static byte[] varint(int field, long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (long) field << 3);
+        writeVarint(out, value);
+        return out.toByteArray();
+    }
+
+    private static byte[] field(int field, String value) {
+        return field(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] field(int field, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, ((long) field << 3) | 2);
+        writeVarint(out, value.length);
+        out.write(value, 0, value.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] message(byte[]... fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] field : fields) {
+            out.write(field, 0, field.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,76 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LandmarkDecoderTest {
+
+    private static String landmarks(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"x\": ").append(i / 100.0)
+                    .append(", \"y\": 0.25, \"z\": -1, \"visibility\": 0.9987654321, \"presence\": 0.5}");
+        }
+        return json.append(']').toString();
+    }
+
+    @Test
+    void decodesLandmarksInPoseSequenceLayout() {
+        float[] frame = LandmarkDecoder.decodeFrame(landmarks(33));
+
+        int elbow = PoseFrame.LEFT_ELBOW * PoseSequence.COMPONENTS;
+        assertEquals(0.13f, frame[elbow + PoseSequence.X], 1e-6);
+        assertEquals(0.25f, frame[elbow + PoseSequence.Y], 1e-6);
+        assertEquals(-1f, frame[elbow + PoseSequence.Z], 1e-6);
+        assertEquals(0.9987654321f, frame[elbow + PoseSequence.VISIBILITY], 1e-6);
+    }
+
+    @Test
+    void emptyResponseIsAFrameWithoutLandmarks() {
+        float[] frame = LandmarkDecoder.decodeFrame("[]");
+
+        assertEquals(PoseSequence.FRAME_STRIDE, frame.length);
+        assertTrue(Float.isNaN(frame[0]));
+    }
+
+    @Test
+    void rejectsMalformedResponses() {
+        assertThrows(IllegalArgumentException.class, () -> LandmarkDecoder.decodeFrame(landmarks(34)));
+        assertThrows(IllegalArgumentException.class, () -> LandmarkDecoder.decodeFrame(landmarks(17)));
+        assertThrows(IllegalArgumentException.class, () -> LandmarkDecoder.decodeFrame("[{\"x\": 0.1, \"y\": 0.2}]"));
+        assertThrows(IllegalArgumentException.class, () -> LandmarkDecoder.decodeFrame("{\"error\": \"no image\"}"));
+        assertThrows(IllegalArgumentException.class, () -> LandmarkDecoder.decodeFrame(landmarks(33).substring(0, 200)));
+    }
+
+    @Test
+    void decodesBatchesFrameByFrame() {
+        List<float[]> frames = LandmarkDecoder.decodeBatch("[" + landmarks(33) + ", [], " + landmarks(33) + "]");
+
+        assertEquals(3, frames.size());
+        assertTrue(Float.isNaN(frames.get(1)[0]));
+        assertEquals(0.32f, frames.get(2)[PoseFrame.RIGHT_FOOT_INDEX * PoseSequence.COMPONENTS], 1e-6);
+    }
+
+    @Test
+    void parsesNumbersLikeFloatParseFloat() {
+        // The last ones are 0 times a huge power of ten and a value that
+        // rounds differently when it goes through a double first
+        String[] numbers = {"0", "-0.0", "1", "0.5123456789012345", "-0.0729166641831398", "123.456",
+                "1e-5", "2.5E+3", "-7.000000000000001e-08", "0.99999999999999999999", "12345678901234567890123",
+                "1e-50", "3.4028235e38", "0e1000", "1.00000017881393432617187499"};
+        for (String number : numbers) {
+            float[] frame = LandmarkDecoder.decodeFrame(landmarks(33).replaceFirst("\"x\": [^,]*", "\"x\": " + number));
+            assertEquals(Float.floatToIntBits(Float.parseFloat(number)), Float.floatToIntBits(frame[PoseSequence.X]), number);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.SCU.pose.inference;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.metrics.Stage;
+import com.SCU.pose.metrics.VideoTrace;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.pipeline.FrameEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PoseInferenceClientTest {
+
+    private StandInPoseServer server;
+    private PoseInferenceClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInPoseServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        server.close();
+    }
+
+    private void startClient(int batchSize, long batchMaxWaitMs) {
+        client = new PoseInferenceClient();
+        ReflectionTestUtils.setField(client, "frameEncoder", new FrameEncoder("jpg", 640, 640, 80, 1));
+        ReflectionTestUtils.setField(client, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(client, "endpoint", server.url("/upload"));
+        ReflectionTestUtils.setField(client, "batchEndpoint", server.url("/upload_batch"));
+        ReflectionTestUtils.setField(client, "maxInFlight", 4);
+        ReflectionTestUtils.setField(client, "batchSize", batchSize);
+        ReflectionTestUtils.setField(client, "batchMaxWaitMs", batchMaxWaitMs);
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 2000);
+        ReflectionTestUtils.setField(client, "readTimeoutMs", 10000);
+        client.init();
+    }
+
+    private List<CompletableFuture<float[]>> submitFrames(int count) throws InterruptedException {
+        List<CompletableFuture<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(client.detectAsync(new byte[]{(byte) i, 42}));
+        }
+        return results;
+    }
+
+    private void assertFrameResults(List<CompletableFuture<float[]>> results) throws Exception {
+        for (int i = 0; i < results.size(); i++) {
+            float[] landmarks = results.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(PoseSequence.FRAME_STRIDE, landmarks.length);
+            assertEquals(i / 256.0, landmarks[PoseSequence.X], 1e-6);
+            assertEquals(PoseFrame.RIGHT_SHOULDER / 33.0,
+                    landmarks[PoseFrame.RIGHT_SHOULDER * PoseSequence.COMPONENTS + PoseSequence.Y], 1e-6);
+        }
+    }
+
+    @Test
+    void sendsFramesIndividuallyWhenBatchingIsOff() throws Exception {
+        startClient(1, 20);
+
+        assertFrameResults(submitFrames(10));
+        assertEquals(10, server.getSingleRequests());
+        assertEquals(0, server.getBatchRequests());
+    }
+
+    @Test
+    void demultiplexesFullBatchesInFrameOrder() throws Exception {
+        startClient(4, 10_000);
+
+        assertFrameResults(submitFrames(12));
+        assertEquals(3, server.getBatchRequests());
+        assertEquals(0, server.getSingleRequests());
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxWait() throws Exception {
+        startClient(8, 20);
+
+        assertFrameResults(submitFrames(3));
+        assertEquals(1, server.getBatchRequests());
+    }
+
+    @Test
+    void parseTimeGoesToTheFramesVideoTrace() throws Exception {
+        startClient(4, 10_000);
+        VideoTrace first = new VideoTrace("first");
+        VideoTrace second = new VideoTrace("second");
+
+        // One batch with frames of two videos
+        List<CompletableFuture<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(client.detectAsync(new byte[]{(byte) i, 42}, i < 3 ? first : second));
+        }
+        assertFrameResults(results);
+
+        assertEquals(3, first.getStages().get(Stage.PARSE.getTag()).getCount());
+        assertEquals(1, second.getStages().get(Stage.PARSE.getTag()).getCount());
+    }
+}
@@ -0,0 +1,147 @@
+package com.SCU.pose.inference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for the Python pose service. Every frame gets 33 landmarks
+// whose x is derived from the frame's first byte, so callers can check that
+// results come back to the frame they belong to. Each request can be held for
+// a latency plus a uniformly random jitter to mimic model inference time.
+public class StandInPoseServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final AtomicInteger singleRequests = new AtomicInteger();
+    private final AtomicInteger batchRequests = new AtomicInteger();
+
+    public StandInPoseServer() throws IOException {
+        this(0, 0);
+    }
+
+    public StandInPoseServer(long latencyMs, long jitterMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/upload", this::handleSingle);
+        server.createContext("/upload_batch", this::handleBatch);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public int getSingleRequests() {
+        return singleRequests.get();
+    }
+
+    public int getBatchRequests() {
+        return batchRequests.get();
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        singleRequests.incrementAndGet();
+        byte[] frame = readAll(exchange.getRequestBody());
+        simulateInference();
+        respond(exchange, landmarks(frame));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        batchRequests.incrementAndGet();
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+        List<byte[]> frames = splitMultipart(readAll(exchange.getRequestBody()), boundary);
+        simulateInference();
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < frames.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(landmarks(frames.get(i)));
+        }
+        respond(exchange, json.append(']').toString());
+    }
+
+    private void simulateInference() {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static String landmarks(byte[] frame) {
+        double x = frame.length > 0 ? (frame[0] & 0xff) / 256.0 : 0;
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 33; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"x\":").append(x)
+                    .append(",\"y\":").append(i / 33.0)
+                    .append(",\"z\":0.0,\"visibility\":0.9}");
+        }
+        return json.append(']').toString();
+    }
+
+    // Just enough multipart parsing to pull out the part bodies in order
+    private static List<byte[]> splitMultipart(byte[] body, String boundary) {
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        String delimiter = "--" + boundary;
+        List<byte[]> parts = new ArrayList<>();
+        int start = text.indexOf(delimiter);
+        while (start >= 0) {
+            int headersEnd = text.indexOf("\r\n\r\n", start);
+            int next = text.indexOf(delimiter, start + delimiter.length());
+            if (headersEnd < 0 || next < 0) {
+                break;
+            }
+            // Part body ends with CRLF before the next delimiter
+            parts.add(text.substring(headersEnd + 4, next - 2).getBytes(StandardCharsets.ISO_8859_1));
+            start = next;
+        }
+        return parts;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
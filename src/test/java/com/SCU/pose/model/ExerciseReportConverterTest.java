@@ -0,0 +1,33 @@
+package com.SCU.pose.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExerciseReportConverterTest {
+
+    private final ExerciseReportConverter converter = new ExerciseReportConverter();
+
+    @Test
+    void roundTripsReport() {
+        ExerciseReport report = new ExerciseReport(42);
+        report.addExercise(new ExerciseResult("pushup", ExerciseResult.REPS, 7, 8.5));
+        report.addExercise(new ExerciseResult("plank", ExerciseResult.FRAMES, 30, 9.25));
+
+        ExerciseReport restored = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(report));
+
+        assertEquals(42, restored.getFramesAnalyzed());
+        assertEquals(7, restored.getExercise("pushup").getCount());
+        assertEquals(ExerciseResult.FRAMES, restored.getExercise("plank").getUnit());
+        assertEquals(9.25, restored.getExercise("plank").getAverageScore());
+    }
+
+    @Test
+    void readsLegacyPushupCount() {
+        ExerciseReport report = converter.convertToEntityAttribute("Pushup count: 12");
+
+        assertEquals(12, report.getExercise("pushup").getCount());
+        assertNull(report.getExercise("plank"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.SCU.pose.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoseSequenceConverterTest {
+
+    private final PoseSequenceConverter converter = new PoseSequenceConverter();
+
+    // Keypoints drifting slowly, like a person moving between key frames
+    private static List<Coordinate> frame(int index) {
+        List<Coordinate> coordinates = new ArrayList<>();
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            coordinates.add(new Coordinate(null,
+                    0.3 + keypoint * 0.01 + Math.sin(index * 0.2) * 0.05,
+                    0.2 + keypoint * 0.02 + Math.cos(index * 0.2) * 0.05,
+                    -0.4 + keypoint * 0.015,
+                    0.95));
+        }
+        return coordinates;
+    }
+
+    @Test
+    void roundTripsWithinQuantizationStep() {
+        PoseSequence sequence = new PoseSequence();
+        for (int i = 0; i < 300; i++) {
+            sequence.addFrame(frame(i));
+        }
+
+        PoseSequence restored = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(sequence));
+
+        assertEquals(300, restored.getFrameCount());
+        for (int f = 0; f < 300; f++) {
+            for (int k = 0; k < PoseSequence.KEYPOINTS; k++) {
+                for (int c = 0; c < PoseSequence.COMPONENTS; c++) {
+                    assertEquals(sequence.get(f, k, c), restored.get(f, k, c), 1e-4);
+                }
+            }
+        }
+    }
+
+    @Test
+    void keepsFramesWithoutLandmarksInPlace() {
+        PoseSequence sequence = new PoseSequence();
+        sequence.addFrame(frame(0));
+        sequence.addFrame(Collections.emptyList());
+        sequence.addFrame(frame(2));
+
+        PoseSequence restored = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(sequence));
+
+        assertEquals(3, restored.getFrameCount());
+        assertTrue(restored.hasLandmarks(0));
+        assertFalse(restored.hasLandmarks(1));
+        assertTrue(restored.hasLandmarks(2));
+        assertEquals(sequence.get(2, 13, PoseSequence.Y), restored.get(2, 13, PoseSequence.Y), 1e-4);
+    }
+
+    @Test
+    void packsSlowMotionIntoUnderTwoBytesPerValue() {
+        PoseSequence sequence = new PoseSequence();
+        for (int i = 0; i < 300; i++) {
+            sequence.addFrame(frame(i));
+        }
+
+        byte[] packed = converter.convertToDatabaseColumn(sequence);
+
+        // Four doubles per keypoint would be 32 bytes before any row overhead
+        assertTrue(packed.length < 300 * PoseSequence.FRAME_STRIDE * 2, "packed size " + packed.length);
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
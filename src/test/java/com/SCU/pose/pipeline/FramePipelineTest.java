@@ -0,0 +1,397 @@
+package com.SCU.pose.pipeline;
+
+import com.SCU.pose.analysis.PushupAnalyzer;
+import com.SCU.pose.inference.PoseEstimator;
+import com.SCU.pose.metrics.PipelineMetrics;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramePipelineTest {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+    private static final int FRAMES = 360;
+
+    @TempDir
+    static Path tempDir;
+
+    // Seeds 1, 2 and 3 have 6, 4 and 5 push-ups
+    private static final List<Clip> clips = new ArrayList<>();
+
+    // A push-up video and the pixel row of the shoulder landmark, halfway
+    // through the push-ups' range
+    private static class Clip {
+        private final Path video;
+        private final int shoulderRow;
+
+        Clip(Path video, int shoulderRow) {
+            this.video = video;
+            this.shoulderRow = shoulderRow;
+        }
+    }
+
+    @BeforeAll
+    static void writeVideos() throws InterruptedException {
+        nu.pattern.OpenCV.loadLocally();
+        for (int seed = 1; seed <= 3; seed++) {
+            Path video = tempDir.resolve("pushups-" + seed + ".avi");
+            SyntheticVideo.write(video, WIDTH, HEIGHT, FRAMES, seed);
+
+            FigureEstimator calibration = new FigureEstimator(0);
+            run(pipeline("fixed"), video, calibration, frame -> {
+            });
+            clips.add(new Clip(video, (calibration.highest + calibration.lowest) / 2));
+        }
+    }
+
+    private static FramePipeline pipeline(String samplingMode) {
+        KeyFrameExtractor extractor = new KeyFrameExtractor();
+        ReflectionTestUtils.setField(extractor, "samplingMode", samplingMode);
+        ReflectionTestUtils.setField(extractor, "keyFrameInterval", 3);
+        ReflectionTestUtils.setField(extractor, "minStride", 2);
+        ReflectionTestUtils.setField(extractor, "maxStride", 12);
+        ReflectionTestUtils.setField(extractor, "motionThreshold", 2.0);
+        ReflectionTestUtils.setField(extractor, "decodeMode", "sequential");
+
+        FramePipeline pipeline = new FramePipeline();
+        ReflectionTestUtils.setField(pipeline, "keyFrameExtractor", extractor);
+        ReflectionTestUtils.setField(pipeline, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 8);
+        ReflectionTestUtils.setField(pipeline, "inferenceTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(pipeline, "roiEnabled", true);
+        ReflectionTestUtils.setField(pipeline, "roiPadding", 0.25);
+        ReflectionTestUtils.setField(pipeline, "roiLagPadding", 0.01);
+        ReflectionTestUtils.setField(pipeline, "roiMinVisibility", 0.5);
+        ReflectionTestUtils.setField(pipeline, "roiMinSize", 0.2);
+        return pipeline;
+    }
+
+    private static void run(FramePipeline pipeline, Path video, PoseEstimator estimator,
+                            Consumer<PipelineFrame> analyzer) throws InterruptedException {
+        KeyFrameExtractor extractor = (KeyFrameExtractor) ReflectionTestUtils.getField(pipeline, "keyFrameExtractor");
+        try {
+            pipeline.run(video.toString(), estimator, null, analyzer);
+        } finally {
+            pipeline.shutdown();
+            extractor.shutdown();
+        }
+    }
+
+    private static int pushups(String samplingMode, Clip clip, FigureEstimator estimator) throws InterruptedException {
+        PushupAnalyzer analyzer = new PushupAnalyzer();
+        PoseFrame pose = new PoseFrame();
+        run(pipeline(samplingMode), clip.video, estimator, frame -> analyzer.accept(pose.at(frame.getLandmarks(), 0)));
+        return analyzer.finish().getCount();
+    }
+
+    @Test
+    void countsThePushupsOfTheVideo() throws InterruptedException {
+        Clip clip = clips.get(2);
+        assertEquals(5, pushups("fixed", clip, new FigureEstimator(clip.shoulderRow)));
+    }
+
+    // Motion-adaptive sampling is only the default because of this: the same
+    // reps as every third frame, from fewer frames sent to inference
+    @Test
+    void adaptiveSamplingCountsTheSamePushupsWithFewerInferences() throws InterruptedException {
+        for (Clip clip : clips) {
+            FigureEstimator fixed = new FigureEstimator(clip.shoulderRow);
+            FigureEstimator adaptive = new FigureEstimator(clip.shoulderRow);
+
+            int fixedCount = pushups("fixed", clip, fixed);
+            int adaptiveCount = pushups("adaptive", clip, adaptive);
+
+            assertTrue(fixedCount >= 4, clip.video.toString());
+            assertEquals(fixedCount, adaptiveCount, clip.video.toString());
+            assertTrue(adaptive.inferences.get() < fixed.inferences.get(),
+                    clip.video + ": " + adaptive.inferences + " inferences adaptive, " + fixed.inferences + " fixed");
+        }
+    }
+
+    @Test
+    void analyzesFramesInVideoOrderWhateverOrderInferenceFinishes() throws InterruptedException {
+        ScheduledExecutorService service = Executors.newScheduledThreadPool(4);
+        Random random = new Random(7);
+        TaggingEstimator estimator = new TaggingEstimator(ordinal -> {
+            CompletableFuture<float[]> result = new CompletableFuture<>();
+            service.schedule(() -> result.complete(TaggingEstimator.landmarks(ordinal)),
+                    random.nextInt(20), TimeUnit.MILLISECONDS);
+            return result;
+        });
+        FrameSource source = new FrameSource(60);
+        List<Integer> analyzed = new ArrayList<>();
+        try {
+            int count = sourcePipeline(source, 4).run("frames", estimator, null, frame -> {
+                assertEquals(analyzed.size() * 3, frame.getFrameIndex());
+                analyzed.add((int) frame.getLandmarks()[0]);
+            });
+
+            assertEquals(60, count);
+        } finally {
+            service.shutdownNow();
+        }
+        for (int i = 0; i < analyzed.size(); i++) {
+            assertEquals(i, (int) analyzed.get(i));
+        }
+        source.assertAllReleased();
+    }
+
+    @Test
+    void holdsABoundedNumberOfFramesWhileTheAnalyzerIsBehind() throws Exception {
+        int capacity = 2;
+        FrameSource source = new FrameSource(100);
+        TaggingEstimator estimator = new TaggingEstimator(ordinal -> CompletableFuture.completedFuture(TaggingEstimator.landmarks(ordinal)));
+        CountDownLatch firstFrame = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        FramePipeline pipeline = sourcePipeline(source, capacity);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> count = caller.submit(() -> pipeline.run("frames", estimator, null, frame -> {
+                firstFrame.countDown();
+                await(resume);
+            }));
+            assertTrue(firstFrame.await(5, TimeUnit.SECONDS));
+            Thread.sleep(300);
+
+            // Three queues, a frame in each stage and the analyzer, and one
+            // the decoder is trying to hand over
+            assertTrue(source.handedOut() <= 3 * capacity + 4, source.handedOut() + " frames decoded");
+            resume.countDown();
+            assertEquals(100, (int) count.get(5, TimeUnit.SECONDS));
+        } finally {
+            resume.countDown();
+            caller.shutdownNow();
+        }
+        source.assertAllReleased();
+    }
+
+    @Test
+    void stageFailureFailsTheRunAndReleasesEveryFrame() {
+        FrameSource source = new FrameSource(100);
+        TaggingEstimator estimator = new TaggingEstimator(ordinal -> {
+            if (ordinal == 10) {
+                throw new IllegalStateException("pose service down");
+            }
+            return CompletableFuture.completedFuture(TaggingEstimator.landmarks(ordinal));
+        });
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> sourcePipeline(source, 4).run("frames", estimator, null, frame -> {
+                }));
+
+        assertEquals("pose service down", error.getMessage());
+        source.assertAllReleased();
+    }
+
+    @Test
+    void analyzerFailureCancelsInferenceOfQueuedFrames() {
+        FrameSource source = new FrameSource(100);
+        CountDownLatch requested = new CountDownLatch(6);
+        // Only the first three frames ever get landmarks
+        TaggingEstimator estimator = new TaggingEstimator(ordinal -> {
+            requested.countDown();
+            return ordinal < 3
+                    ? CompletableFuture.completedFuture(TaggingEstimator.landmarks(ordinal))
+                    : new CompletableFuture<>();
+        });
+
+        assertThrows(IllegalStateException.class, () -> sourcePipeline(source, 4).run("frames", estimator, null, frame -> {
+            if (frame.getLandmarks()[0] == 2) {
+                // Fail with frames waiting for landmarks behind this one
+                assertTrue(await(requested));
+                throw new IllegalStateException("analyzer failed");
+            }
+        }));
+
+        source.assertAllReleased();
+        for (CompletableFuture<float[]> request : estimator.requests) {
+            assertTrue(request.isDone());
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FramePipeline sourcePipeline(FrameSource source, int capacity) {
+        FramePipeline pipeline = new FramePipeline();
+        ReflectionTestUtils.setField(pipeline, "keyFrameExtractor", source);
+        ReflectionTestUtils.setField(pipeline, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(pipeline, "inferenceTimeoutMs", 5000L);
+        return pipeline;
+    }
+
+    // Key frames without a video: small Mats that carry their ordinal as
+    // pixel value, every third frame of the source
+    private static class FrameSource extends KeyFrameExtractor {
+
+        private final int frames;
+        private final List<Mat> mats = new CopyOnWriteArrayList<>();
+
+        FrameSource(int frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public int extractKeyFrames(String videoFilePath, KeyFrameHandler handler) throws InterruptedException {
+            for (int i = 0; i < frames; i++) {
+                Mat mat = new Mat(4, 4, CvType.CV_32S, new Scalar(i));
+                mats.add(mat);
+                handler.onKeyFrame(i * 3, mat);
+            }
+            return frames;
+        }
+
+        int handedOut() {
+            return mats.size();
+        }
+
+        void assertAllReleased() {
+            for (Mat mat : mats) {
+                assertEquals(0, mat.dataAddr());
+            }
+        }
+    }
+
+    // Tags each frame's request with the ordinal of its Mat; results gives the
+    // landmarks (landmarks(ordinal) for a good frame) for an ordinal
+    private static class TaggingEstimator implements PoseEstimator {
+
+        private final IntFunction<CompletableFuture<float[]>> results;
+        private final List<CompletableFuture<float[]>> requests = new CopyOnWriteArrayList<>();
+
+        TaggingEstimator(IntFunction<CompletableFuture<float[]>> results) {
+            this.results = results;
+        }
+
+        static float[] landmarks(int ordinal) {
+            float[] landmarks = new float[PoseSequence.FRAME_STRIDE];
+            landmarks[0] = ordinal;
+            return landmarks;
+        }
+
+        @Override
+        public byte[] prepare(Mat frame) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt((int) frame.get(0, 0)[0]).array();
+        }
+
+        @Override
+        public CompletableFuture<float[]> estimateAsync(byte[] prepared) {
+            CompletableFuture<float[]> result = results.apply(ByteBuffer.wrap(prepared).getInt());
+            requests.add(result);
+            return result;
+        }
+    }
+
+    // Stand-in pose model for SyntheticVideo: keypoints spread over the stick
+    // figure's bounding box, so the ROI tracker follows it. PushupAnalyzer
+    // only compares the elbow's height with the shoulder's, so the elbow
+    // follows the top of the figure and the shoulder stays at a fixed row:
+    // the elbow is below it at the bottom of a push-up and above it at the top.
+    // The work is done in prepare(), which sees the (possibly cropped) frame.
+    private static class FigureEstimator implements PoseEstimator {
+
+        private final int shoulderRow;
+        private final AtomicInteger inferences = new AtomicInteger();
+        private volatile int highest = Integer.MAX_VALUE;
+        private volatile int lowest;
+
+        FigureEstimator(int shoulderRow) {
+            this.shoulderRow = shoulderRow;
+        }
+
+        @Override
+        public byte[] prepare(Mat frame) {
+            Size wholeSize = new Size();
+            Point offset = new Point();
+            frame.locateROI(wholeSize, offset);
+            Mat gray = new Mat();
+            Mat figure = new Mat();
+            try {
+                // Limbs are drawn brighter than any background or the floor
+                Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+                Imgproc.threshold(gray, figure, 130, 255, Imgproc.THRESH_BINARY);
+                float[] landmarks = new float[PoseSequence.FRAME_STRIDE];
+                if (Core.countNonZero(figure) == 0) {
+                    Arrays.fill(landmarks, Float.NaN);
+                    return toBytes(landmarks);
+                }
+                Rect box = Imgproc.boundingRect(figure);
+                int top = (int) offset.y + box.y;
+                highest = Math.min(highest, top);
+                lowest = Math.max(lowest, top);
+
+                double columns = frame.cols();
+                double rows = frame.rows();
+                for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+                    double t = keypoint / (PoseSequence.KEYPOINTS - 1.0);
+                    int base = keypoint * PoseSequence.COMPONENTS;
+                    landmarks[base + PoseSequence.X] = (float) ((box.x + box.width * t) / columns);
+                    landmarks[base + PoseSequence.Y] = (float) ((box.y + box.height * t) / rows);
+                    landmarks[base + PoseSequence.VISIBILITY] = 0.9f;
+                }
+                landmarks[PoseFrame.LEFT_ELBOW * PoseSequence.COMPONENTS + PoseSequence.Y] = (float) (box.y / rows);
+                landmarks[PoseFrame.RIGHT_SHOULDER * PoseSequence.COMPONENTS + PoseSequence.Y] =
+                        (float) ((shoulderRow - offset.y) / rows);
+                return toBytes(landmarks);
+            } finally {
+                gray.release();
+                figure.release();
+            }
+        }
+
+        @Override
+        public CompletableFuture<float[]> estimateAsync(byte[] prepared) {
+            inferences.incrementAndGet();
+            float[] landmarks = new float[prepared.length / Float.BYTES];
+            ByteBuffer.wrap(prepared).asFloatBuffer().get(landmarks);
+            return CompletableFuture.completedFuture(landmarks);
+        }
+
+        private static byte[] toBytes(float[] landmarks) {
+            ByteBuffer buffer = ByteBuffer.allocate(landmarks.length * Float.BYTES);
+            buffer.asFloatBuffer().put(landmarks);
+            return buffer.array();
+        }
+    }
+}
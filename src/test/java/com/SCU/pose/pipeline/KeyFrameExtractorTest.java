@@ -0,0 +1,148 @@
+package com.SCU.pose.pipeline;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyFrameExtractorTest {
+
+    private static final int FRAMES = 300;
+    private static final int SEGMENT_FRAMES = 64;
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path video;
+
+    @BeforeAll
+    static void writeVideo() {
+        nu.pattern.OpenCV.loadLocally();
+        video = tempDir.resolve("pushups.avi");
+        SyntheticVideo.write(video, 160, 120, FRAMES, 1);
+    }
+
+    private static KeyFrameExtractor extractor(String samplingMode, String decodeMode, int threads) {
+        return configure(new KeyFrameExtractor(), samplingMode, decodeMode, threads);
+    }
+
+    private static <T extends KeyFrameExtractor> T configure(T extractor, String samplingMode, String decodeMode,
+                                                             int threads) {
+        ReflectionTestUtils.setField(extractor, "samplingMode", samplingMode);
+        ReflectionTestUtils.setField(extractor, "keyFrameInterval", 3);
+        ReflectionTestUtils.setField(extractor, "minStride", 2);
+        ReflectionTestUtils.setField(extractor, "maxStride", 12);
+        ReflectionTestUtils.setField(extractor, "motionThreshold", 2.0);
+        ReflectionTestUtils.setField(extractor, "decodeMode", decodeMode);
+        ReflectionTestUtils.setField(extractor, "decodeThreads", threads);
+        ReflectionTestUtils.setField(extractor, "segmentFrames", SEGMENT_FRAMES);
+        ReflectionTestUtils.setField(extractor, "segmentBuffer", 4);
+        return extractor;
+    }
+
+    // Index and pixel sum of every key frame, in the order the handler saw them
+    private static List<String> keyFrames(KeyFrameExtractor extractor) throws InterruptedException {
+        List<String> keyFrames = new ArrayList<>();
+        try {
+            extractor.extractKeyFrames(video.toString(), (frameIndex, frame) -> {
+                keyFrames.add(frameIndex + ":" + Core.sumElems(frame));
+                frame.release();
+            });
+        } finally {
+            extractor.shutdown();
+        }
+        return keyFrames;
+    }
+
+    private static int index(String keyFrame) {
+        return Integer.parseInt(keyFrame.substring(0, keyFrame.indexOf(':')));
+    }
+
+    @Test
+    void parallelFixedSamplingMatchesSequentialDecoding() throws InterruptedException {
+        List<String> sequential = keyFrames(extractor("fixed", "sequential", 1));
+        List<String> parallel = keyFrames(extractor("fixed", "parallel", 3));
+
+        assertEquals(FRAMES / 3, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void parallelAdaptiveSamplingDoesNotDependOnThreadCount() throws InterruptedException {
+        List<String> oneThread = keyFrames(extractor("adaptive", "parallel", 1));
+        List<String> threeThreads = keyFrames(extractor("adaptive", "parallel", 3));
+
+        assertEquals(oneThread, threeThreads);
+        int previous = -1;
+        List<Integer> indexes = new ArrayList<>();
+        for (String keyFrame : threeThreads) {
+            assertTrue(index(keyFrame) > previous);
+            previous = index(keyFrame);
+            indexes.add(previous);
+        }
+        // Every segment starts with a key frame
+        for (int start = 0; start < FRAMES; start += SEGMENT_FRAMES) {
+            assertTrue(indexes.contains(start), "segment start " + start);
+        }
+    }
+
+    @Test
+    void cancellingParallelDecodingReleasesEveryFrame() throws Exception {
+        TrackingExtractor extractor = configure(new TrackingExtractor(), "fixed", "parallel", 3);
+        CountDownLatch handedOut = new CountDownLatch(5);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            // The handler stalls after five key frames, like a full pipeline queue
+            Future<Integer> decoding = caller.submit(() -> extractor.extractKeyFrames(video.toString(), (frameIndex, frame) -> {
+                frame.release();
+                handedOut.countDown();
+                if (handedOut.getCount() == 0) {
+                    new CountDownLatch(1).await();
+                }
+            }));
+            assertTrue(handedOut.await(5, TimeUnit.SECONDS));
+            // Let the workers decode ahead into their segment buffers
+            Thread.sleep(200);
+
+            decoding.cancel(true);
+            caller.shutdown();
+            assertTrue(caller.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            caller.shutdownNow();
+            extractor.shutdown();
+        }
+
+        assertTrue(extractor.frames.size() > 5);
+        for (Mat frame : extractor.frames) {
+            assertEquals(0, frame.dataAddr());
+        }
+    }
+
+    // Keeps every buffer the decoder allocates
+    private static class TrackingExtractor extends KeyFrameExtractor {
+
+        private final List<Mat> frames = new CopyOnWriteArrayList<>();
+
+        @Override
+        Mat newFrame() {
+            Mat frame = super.newFrame();
+            frames.add(frame);
+            return frame;
+        }
+    }
+}
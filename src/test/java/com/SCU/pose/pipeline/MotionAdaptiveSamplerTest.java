@@ -0,0 +1,65 @@
+package com.SCU.pose.pipeline;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MotionAdaptiveSamplerTest {
+
+    @BeforeAll
+    static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // A gray frame with a white block whose top edge sits at the given row
+    private static Mat frameWithBlockAt(int top) {
+        Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(40, 40, 40));
+        Imgproc.rectangle(frame, new Point(120, top), new Point(200, top + 60), new Scalar(255, 255, 255), -1);
+        return frame;
+    }
+
+    private static List<Integer> sample(KeyFrameSampler sampler, int frames, int pixelsPerFrame) {
+        List<Integer> keyFrames = new ArrayList<>();
+        for (int i = 0; i < frames; i++) {
+            Mat frame = frameWithBlockAt(20 + (i * pixelsPerFrame) % 150);
+            if (sampler.isKeyFrame(i, frame)) {
+                keyFrames.add(i);
+            }
+            frame.release();
+        }
+        sampler.release();
+        return keyFrames;
+    }
+
+    @Test
+    void staticSceneIsSampledAtMaxStride() {
+        List<Integer> keyFrames = sample(new MotionAdaptiveSampler(2, 10, 2.0), 60, 0);
+
+        assertEquals(6, keyFrames.size());
+        assertEquals(Integer.valueOf(0), keyFrames.get(0));
+        assertEquals(Integer.valueOf(10), keyFrames.get(1));
+    }
+
+    @Test
+    void fastMotionIsSampledAtMinStride() {
+        List<Integer> keyFrames = sample(new MotionAdaptiveSampler(2, 10, 2.0), 60, 10);
+
+        assertEquals(30, keyFrames.size());
+    }
+
+    @Test
+    void fixedIntervalMatchesEveryThirdFrame() {
+        List<Integer> keyFrames = sample(new FixedIntervalSampler(3), 60, 0);
+
+        assertEquals(20, keyFrames.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.SCU.pose.pipeline;
+
+import com.SCU.pose.inference.LandmarkDecoder;
+import com.SCU.pose.model.PoseSequence;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Rect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoiTrackerTest {
+
+    @BeforeAll
+    static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // All keypoints spread evenly over the box from (left, top) to (right, bottom)
+    private static float[] landmarksIn(double left, double top, double right, double bottom) {
+        float[] landmarks = new float[PoseSequence.FRAME_STRIDE];
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            double t = keypoint / (PoseSequence.KEYPOINTS - 1.0);
+            int base = keypoint * PoseSequence.COMPONENTS;
+            landmarks[base + PoseSequence.X] = (float) (left + (right - left) * t);
+            landmarks[base + PoseSequence.Y] = (float) (top + (bottom - top) * t);
+            landmarks[base + PoseSequence.Z] = 0.1f;
+            landmarks[base + PoseSequence.VISIBILITY] = 0.9f;
+        }
+        return landmarks;
+    }
+
+    @Test
+    void regionIsThePaddedBoxAroundTheLandmarks() {
+        RoiTracker tracker = new RoiTracker(0.25, 0, 0.5, 0.2);
+
+        tracker.update(0, landmarksIn(0.4, 0.3, 0.6, 0.7));
+
+        RoiTracker.Region region = tracker.current(0);
+        assertNotNull(region);
+        assertEquals(0.3, region.getX(), 1e-6);
+        assertEquals(0.2, region.getY(), 1e-6);
+        assertEquals(0.4, region.getWidth(), 1e-6);
+        assertEquals(0.6, region.getHeight(), 1e-6);
+        assertEquals(new Rect(192, 72, 256, 216), region.toRect(640, 360));
+    }
+
+    @Test
+    void croppedLandmarksMapBackToTheWholeFrame() {
+        Rect rect = new Rect(160, 90, 320, 180);
+        RoiTracker.Region region = RoiTracker.Region.of(rect, 640, 360);
+        float[] landmarks = landmarksIn(0, 0, 1, 1);
+
+        region.toFullFrame(landmarks);
+
+        int last = (PoseSequence.KEYPOINTS - 1) * PoseSequence.COMPONENTS;
+        assertEquals(0.25, landmarks[PoseSequence.X], 1e-6);
+        assertEquals(0.25, landmarks[PoseSequence.Y], 1e-6);
+        assertEquals(0.75, landmarks[last + PoseSequence.X], 1e-6);
+        assertEquals(0.75, landmarks[last + PoseSequence.Y], 1e-6);
+        assertEquals(0.05, landmarks[PoseSequence.Z], 1e-6);
+        assertEquals(0.9, landmarks[PoseSequence.VISIBILITY], 1e-6);
+    }
+
+    @Test
+    void paddingGrowsWithTheFramesSinceTheLandmarks() {
+        // Athlete moving right by 0.0075 of the frame per frame; frame 20 is
+        // cropped while only the landmarks of frame 0 are known
+        float[] first = landmarksIn(0.2, 0.3, 0.4, 0.7);
+        float[] later = landmarksIn(0.35, 0.3, 0.55, 0.7);
+        RoiTracker tracker = new RoiTracker(0.25, 0.02, 0.5, 0.2);
+        tracker.update(0, first);
+
+        RoiTracker.Region region = tracker.current(20);
+        assertNotNull(region);
+        assertEquals(0.0, region.getX(), 1e-6);
+        assertEquals(0.72, region.getWidth(), 1e-6);
+        assertTrue(contains(region, later));
+
+        // Without lag padding the athlete has already walked out of the crop
+        RoiTracker lagFree = new RoiTracker(0.25, 0, 0.5, 0.2);
+        lagFree.update(0, first);
+        assertFalse(contains(lagFree.current(20), later));
+
+        // Fresh landmarks bring the region back to the plain padding
+        tracker.update(20, later);
+        assertEquals(0.6, tracker.current(20).getHeight(), 1e-6);
+    }
+
+    private static boolean contains(RoiTracker.Region region, float[] landmarks) {
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            int base = keypoint * PoseSequence.COMPONENTS;
+            float x = landmarks[base + PoseSequence.X];
+            float y = landmarks[base + PoseSequence.Y];
+            if (x < region.getX() || x > region.getX() + region.getWidth()
+                    || y < region.getY() || y > region.getY() + region.getHeight()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void losingThePersonFallsBackToTheWholeFrame() {
+        RoiTracker tracker = new RoiTracker(0.25, 0, 0.5, 0.2);
+        tracker.update(0, landmarksIn(0.4, 0.3, 0.6, 0.7));
+
+        // An older result arriving late does not move the region
+        tracker.update(3, LandmarkDecoder.emptyFrame());
+        tracker.update(1, landmarksIn(0.4, 0.3, 0.6, 0.7));
+        assertNull(tracker.current(3));
+
+        tracker.update(6, landmarksIn(0.1, 0.1, 0.3, 0.3));
+        assertNotNull(tracker.current(6));
+
+        // A person filling the frame is not worth cropping to
+        tracker.update(9, landmarksIn(0.05, 0.05, 0.95, 0.95));
+        assertNull(tracker.current(9));
+    }
+}
@@ -0,0 +1,90 @@
+package com.SCU.pose.pipeline;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoWriter;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+// Generates MJPG test videos of a stick figure seen from the side: push-ups
+// for the first two thirds, then a plank hold. The seed varies the figure's
+// size, position, tempo and colours, so every seed gives a file with its own
+// content hash and the result cache never short-circuits a load test.
+public final class SyntheticVideo {
+
+    public static final double FPS = 30;
+
+    private SyntheticVideo() {
+    }
+
+    public static void write(Path path, int width, int height, int frames, long seed) {
+        Random random = new Random(seed);
+        double scale = 0.8 + random.nextDouble() * 0.3;
+        double feetX = width * (0.12 + random.nextDouble() * 0.08);
+        double floor = height * (0.82 + random.nextDouble() * 0.08);
+        double bodyLength = width * 0.55 * scale;
+        double armLength = height * 0.32 * scale;
+        double repFrames = FPS * (1.2 + random.nextDouble() * 0.8);
+        Scalar background = new Scalar(40 + random.nextInt(60), 40 + random.nextInt(60), 40 + random.nextInt(60));
+        Scalar limbs = new Scalar(150 + random.nextInt(100), 150 + random.nextInt(100), 150 + random.nextInt(100));
+        int thickness = Math.max(2, height / 60);
+
+        VideoWriter writer = new VideoWriter(path.toString(), VideoWriter.fourcc('M', 'J', 'P', 'G'), FPS, new Size(width, height));
+        if (!writer.isOpened()) {
+            throw new IllegalStateException("Cannot write test video " + path);
+        }
+        Mat frame = new Mat(height, width, CvType.CV_8UC3);
+        try {
+            for (int i = 0; i < frames; i++) {
+                // Arms fully extended at 1, bent at the bottom of a push-up at 0.55
+                double extension = i < frames * 2 / 3
+                        ? 0.55 + 0.45 * (0.5 + 0.5 * Math.cos(2 * Math.PI * i / repFrames))
+                        : 1;
+                frame.setTo(background);
+                Imgproc.line(frame, new Point(0, floor + thickness), new Point(width, floor + thickness), new Scalar(90, 90, 90), thickness);
+                drawFigure(frame, feetX, floor, bodyLength, armLength, extension, limbs, thickness);
+                writer.write(frame);
+            }
+        } finally {
+            frame.release();
+            writer.release();
+        }
+    }
+
+    private static void drawFigure(Mat frame, double feetX, double floor, double bodyLength, double armLength,
+                                   double extension, Scalar color, int thickness) {
+        double shoulderHeight = armLength * extension;
+        double angle = Math.asin(Math.min(1, shoulderHeight / bodyLength));
+        Point feet = new Point(feetX, floor);
+        Point shoulder = new Point(feetX + bodyLength * Math.cos(angle), floor - shoulderHeight);
+        Point hip = between(feet, shoulder, 0.45);
+        Point knee = between(feet, shoulder, 0.22);
+        Point hand = new Point(shoulder.x, floor);
+
+        // Elbow bends backwards, off the line between shoulder and hand
+        double half = armLength / 2;
+        double bend = Math.sqrt(Math.max(0, half * half - shoulderHeight * shoulderHeight / 4));
+        Point elbow = new Point(shoulder.x - bend, floor - shoulderHeight / 2);
+
+        Point head = new Point(shoulder.x + armLength * 0.3 * Math.cos(angle), shoulder.y - armLength * 0.3 * Math.sin(angle));
+
+        Imgproc.line(frame, feet, knee, color, thickness);
+        Imgproc.line(frame, knee, hip, color, thickness);
+        Imgproc.line(frame, hip, shoulder, color, thickness);
+        Imgproc.line(frame, shoulder, elbow, color, thickness);
+        Imgproc.line(frame, elbow, hand, color, thickness);
+        Imgproc.circle(frame, head, (int) (armLength * 0.14), color, -1);
+        for (Point joint : new Point[]{feet, knee, hip, shoulder, elbow, hand}) {
+            Imgproc.circle(frame, joint, thickness * 2, color, -1);
+        }
+    }
+
+    private static Point between(Point from, Point to, double fraction) {
+        return new Point(from.x + (to.x - from.x) * fraction, from.y + (to.y - from.y) * fraction);
+    }
+}
@@ -0,0 +1,112 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    private final ChunkedUploadService service = new ChunkedUploadService();
+    private final VideoUploadStore store = new VideoUploadStore();
+    private final byte[] video = new byte[10 * CHUNK_SIZE + 123];
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "tempDir", tempDir.toString());
+        ReflectionTestUtils.setField(store, "pipelineMetrics", pipelineMetrics);
+        store.init();
+        ReflectionTestUtils.setField(service, "videoUploadStore", store);
+        ReflectionTestUtils.setField(service, "pipelineMetrics", pipelineMetrics);
+        ReflectionTestUtils.setField(service, "maxChunkSizeMb", 1);
+        ReflectionTestUtils.setField(service, "maxSizeMb", 1L);
+        ReflectionTestUtils.setField(service, "maxUploads", 2);
+        ReflectionTestUtils.setField(service, "expireMinutes", 30L);
+        service.init();
+        new Random(7).nextBytes(video);
+    }
+
+    private ByteArrayInputStream chunk(int index) {
+        int from = index * CHUNK_SIZE;
+        return new ByteArrayInputStream(Arrays.copyOfRange(video, from, Math.min(video.length, from + CHUNK_SIZE)));
+    }
+
+    @Test
+    void parallelOutOfOrderChunksAssembleTheVideo() throws Exception {
+        ChunkedUpload upload = service.create(1, video.length, CHUNK_SIZE);
+        assertEquals(11, upload.getChunkCount());
+
+        List<Integer> order = new ArrayList<>();
+        for (int index = 0; index < upload.getChunkCount(); index++) {
+            order.add(index);
+        }
+        Collections.shuffle(order, new Random(3));
+        ExecutorService streams = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ChunkedUpload>> writes = new ArrayList<>();
+            for (int index : order) {
+                writes.add(streams.submit(() -> service.writeChunk(upload, index, chunk(index))));
+            }
+            for (Future<ChunkedUpload> write : writes) {
+                write.get();
+            }
+        } finally {
+            streams.shutdown();
+        }
+
+        StoredUpload stored = service.finish(upload);
+
+        assertArrayEquals(video, Files.readAllBytes(stored.getPath()));
+        StoredUpload streamed = store.store(new ByteArrayInputStream(video));
+        assertEquals(streamed.getContentHash(), stored.getContentHash());
+        assertFalse(service.get(upload.getId()).isPresent());
+    }
+
+    @Test
+    void missingChunksAreReportedAndCanBeResent() throws Exception {
+        ChunkedUpload upload = service.create(1, video.length, CHUNK_SIZE);
+        for (int index = 0; index < upload.getChunkCount(); index++) {
+            if (index != 4 && index != 10) {
+                service.writeChunk(upload, index, chunk(index));
+            }
+        }
+        // A short body does not count as received
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(upload, 4, new ByteArrayInputStream(new byte[CHUNK_SIZE - 1])));
+
+        assertEquals(Arrays.asList(4, 10), upload.getMissingChunks());
+        assertThrows(IllegalStateException.class, () -> service.finish(upload));
+
+        service.writeChunk(upload, 4, chunk(4));
+        service.writeChunk(upload, 10, chunk(10));
+        StoredUpload stored = service.finish(upload);
+
+        assertArrayEquals(video, Files.readAllBytes(stored.getPath()));
+        assertThrows(IllegalStateException.class, () -> service.writeChunk(upload, 0, chunk(0)));
+    }
+}
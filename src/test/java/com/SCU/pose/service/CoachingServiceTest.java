@@ -0,0 +1,116 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.analysis.ExerciseAnalyzer;
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.analysis.FrameFeatures;
+import com.SCU.pose.dto.CoachingUpdate;
+import com.SCU.pose.dto.LandmarkFrameMessage;
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.PoseSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CoachingServiceTest {
+
+    private final CoachingService coachingService = new CoachingService();
+    private final ExerciseRegistry exerciseRegistry = new ExerciseRegistry();
+    private final VideoAnalysisService analysisService = new VideoAnalysisService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coachingService, "exerciseRegistry", exerciseRegistry);
+        ReflectionTestUtils.setField(analysisService, "exerciseRegistry", exerciseRegistry);
+    }
+
+    private static float[] frame(PoseSequence sequence, int index) {
+        int from = index * PoseSequence.FRAME_STRIDE;
+        return Arrays.copyOfRange(sequence.getValues(), from, from + PoseSequence.FRAME_STRIDE);
+    }
+
+    // Streams the frames of the sequence in one session and returns the last update
+    private CoachingUpdate stream(String sessionId, PoseSequence sequence) {
+        CoachingUpdate update = null;
+        for (int i = 0; i < sequence.getFrameCount(); i++) {
+            update = coachingService.accept(sessionId, new LandmarkFrameMessage(i, 0, frame(sequence, i)));
+        }
+        return update;
+    }
+
+    @Test
+    void liveCountsMatchTheVideoAnalysis() {
+        PoseSequence sequence = VideoAnalysisServiceTest.pushups(4);
+
+        CoachingUpdate update = stream("session", sequence);
+
+        assertEquals(4, update.getPushupCount());
+        assertEquals(analysisService.analyzePushups(sequence).getAverageScore(), update.getPushupScore(), 1e-6);
+        assertEquals(analysisService.analyzePlanks(sequence).getDuration(), update.getPlankFrames());
+    }
+
+    @Test
+    void framesWithoutSequenceAreTakenInArrivalOrder() {
+        PoseSequence sequence = VideoAnalysisServiceTest.pushups(4);
+
+        CoachingUpdate update = null;
+        for (int i = 0; i < sequence.getFrameCount(); i++) {
+            // As deserialized from a message without a sequence field
+            LandmarkFrameMessage message = new LandmarkFrameMessage();
+            message.setLandmarks(frame(sequence, i));
+            update = coachingService.accept("session", message);
+        }
+
+        assertNull(update.getSequence());
+        assertEquals(4, update.getPushupCount());
+    }
+
+    @Test
+    void framesArrivingOutOfOrderAreDropped() {
+        PoseSequence sequence = VideoAnalysisServiceTest.pushups(2);
+        stream("session", sequence);
+
+        // Late copies of a push-up's bottom and top, which would count a third one
+        coachingService.accept("session", new LandmarkFrameMessage(1, 0, frame(sequence, 1)));
+        CoachingUpdate update = coachingService.accept("session", new LandmarkFrameMessage(0, 0, frame(sequence, 0)));
+
+        assertEquals(2, update.getPushupCount());
+    }
+
+    @Test
+    void sessionsReportRegisteredExercises() {
+        exerciseRegistry.register(FrameCounter::new);
+
+        CoachingUpdate update = stream("session", VideoAnalysisServiceTest.pushups(2));
+
+        assertEquals(7, update.getExercises().get(FrameCounter.EXERCISE).getCount());
+        assertEquals(2, update.getExercises().get("pushup").getCount());
+    }
+
+    // Counts the frames with landmarks
+    private static class FrameCounter implements ExerciseAnalyzer {
+
+        static final String EXERCISE = "frames";
+
+        private int frames;
+
+        @Override
+        public String getExercise() {
+            return EXERCISE;
+        }
+
+        @Override
+        public void accept(FrameFeatures features) {
+            frames++;
+        }
+
+        @Override
+        public ExerciseResult result() {
+            return new ExerciseResult(EXERCISE, ExerciseResult.FRAMES, frames, 0);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.dto.UserStats;
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.model.DataMigration;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.ExerciseResult;
+import com.SCU.pose.model.UserExerciseStats;
+import com.SCU.pose.repository.DataMigrationRepository;
+import com.SCU.pose.repository.UserExerciseStatsRepository;
+import com.SCU.pose.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatsServiceTest {
+
+    private final UserStatsService service = new UserStatsService();
+    private final UserExerciseStatsRepository repository = mock(UserExerciseStatsRepository.class);
+    private final VideoRepository videoRepository = mock(VideoRepository.class);
+    private final DataMigrationRepository dataMigrationRepository = mock(DataMigrationRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "userExerciseStatsRepository", repository);
+        ReflectionTestUtils.setField(service, "videoRepository", videoRepository);
+        ReflectionTestUtils.setField(service, "dataMigrationRepository", dataMigrationRepository);
+    }
+
+    @Test
+    void videoIsAddedToAllTimeDayAndWeekOfEachExerciseDone() {
+        ExerciseReport report = new ExerciseReport(120);
+        report.addExercise(new ExerciseResult("pushup", ExerciseResult.REPS, 12, 0.8));
+        report.addExercise(new ExerciseResult("plank", ExerciseResult.FRAMES, 0, 0));
+        // A Thursday
+        LocalDate day = LocalDate.of(2024, 3, 14);
+
+        service.record(7, report, day);
+
+        verify(repository).add(7, "pushup", UserExerciseStats.ALL, UserExerciseStats.ALL_TIME, ExerciseResult.REPS, 1, 12, 0.8, 0.8);
+        verify(repository).add(7, "pushup", UserExerciseStats.DAY, day, ExerciseResult.REPS, 1, 12, 0.8, 0.8);
+        verify(repository).add(7, "pushup", UserExerciseStats.WEEK, LocalDate.of(2024, 3, 11), ExerciseResult.REPS, 1, 12, 0.8, 0.8);
+        verify(repository, never()).add(anyInt(), eq("plank"), anyString(), any(), anyString(), anyInt(), anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void rowsAreSplitIntoTotalsAndRollups() {
+        LocalDate today = LocalDate.now();
+        LocalDate week = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        when(repository.findRecent(7, today.minusDays(6), week.minusWeeks(UserStatsService.MAX_WEEKS - 1))).thenReturn(Arrays.asList(
+                new UserExerciseStats(7, "pushup", UserExerciseStats.ALL, UserExerciseStats.ALL_TIME, ExerciseResult.REPS, 4, 50, 3.0, 0.9),
+                new UserExerciseStats(7, "pushup", UserExerciseStats.WEEK, week, ExerciseResult.REPS, 2, 20, 1.4, 0.8),
+                new UserExerciseStats(7, "pushup", UserExerciseStats.DAY, today, ExerciseResult.REPS, 1, 12, 0.6, 0.6)));
+
+        // More weeks than allowed are capped
+        UserStats stats = service.getStats(7, 7, 1000);
+
+        assertEquals(4, stats.getTotals().get("pushup").getVideos());
+        assertEquals(50, stats.getTotals().get("pushup").getTotal());
+        assertEquals(0.75, stats.getTotals().get("pushup").getAverageScore(), 1e-9);
+        assertNull(stats.getTotals().get("pushup").getPeriodStart());
+        assertEquals(1, stats.getDaily().size());
+        assertEquals(today, stats.getDaily().get(0).getPeriodStart());
+        assertEquals(1, stats.getWeekly().size());
+        assertEquals(0.7, stats.getWeekly().get(0).getAverageScore(), 1e-9);
+        assertEquals(0.8, stats.getWeekly().get(0).getBestScore(), 1e-9);
+    }
+
+    private static VideoSummary video(int id, int userId, int pushups, double score) {
+        ExerciseReport report = new ExerciseReport(100);
+        report.addExercise(new ExerciseResult("pushup", ExerciseResult.REPS, pushups, score));
+        report.addExercise(new ExerciseResult("plank", ExerciseResult.FRAMES, 0, 0));
+        return new VideoSummary(id, userId, "hash" + id, report);
+    }
+
+    @Test
+    void backfillSumsStoredVideosIntoAllTimeRows() {
+        when(videoRepository.findSummariesAfter(eq(0), any())).thenReturn(Arrays.asList(
+                video(1, 7, 10, 0.6), video(2, 8, 5, 0.9), video(3, 7, 12, 0.8)));
+
+        assertEquals(3, service.backfill());
+
+        verify(repository).lock();
+        verify(repository).add(7, "pushup", UserExerciseStats.ALL, UserExerciseStats.ALL_TIME, ExerciseResult.REPS, 2, 22, 1.4, 0.8);
+        verify(repository).add(8, "pushup", UserExerciseStats.ALL, UserExerciseStats.ALL_TIME, ExerciseResult.REPS, 1, 5, 0.9, 0.9);
+        verify(repository, never()).add(anyInt(), eq("plank"), anyString(), any(), anyString(), anyInt(), anyLong(), anyDouble(), anyDouble());
+        verify(dataMigrationRepository).save(argThat(migration -> DataMigration.USER_STATS_BACKFILL.equals(migration.getName())));
+    }
+
+    @Test
+    void backfillSkipsATableThatHasRows() {
+        when(repository.count()).thenReturn(3L);
+
+        assertEquals(0, service.backfill());
+
+        verify(videoRepository, never()).findSummariesAfter(anyInt(), any());
+        verify(dataMigrationRepository).save(any());
+    }
+
+    @Test
+    void completedBackfillIsNotRunAgainEvenThoughNoRowsCameOfIt() {
+        // Only videos without any exercise done, so the first run added no rows
+        when(videoRepository.findSummariesAfter(eq(0), any())).thenReturn(Arrays.asList(video(1, 7, 0, 0)));
+        assertEquals(1, service.backfill());
+        when(dataMigrationRepository.existsById(DataMigration.USER_STATS_BACKFILL)).thenReturn(true);
+
+        assertEquals(0, service.backfill());
+
+        verify(repository, times(1)).lock();
+        verify(videoRepository, times(1)).findSummariesAfter(anyInt(), any());
+    }
+}
@@ -0,0 +1,116 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.analysis.ExerciseRegistry;
+import com.SCU.pose.analysis.PlankAnalyzer;
+import com.SCU.pose.analysis.PushupAnalyzer;
+import com.SCU.pose.model.Coordinate;
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.model.Image;
+import com.SCU.pose.model.PoseFrame;
+import com.SCU.pose.model.PoseSequence;
+import com.SCU.pose.model.Video;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VideoAnalysisServiceTest {
+
+    private final VideoAnalysisService analysisService = new VideoAnalysisService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(analysisService, "exerciseRegistry", new ExerciseRegistry());
+    }
+
+    // Side-on push-up: body level, elbow dropping below the shoulder when down
+    static List<Coordinate> pushupFrame(boolean down) {
+        List<Coordinate> coordinates = new ArrayList<>();
+        for (int keypoint = 0; keypoint < PoseSequence.KEYPOINTS; keypoint++) {
+            coordinates.add(new Coordinate(PoseFrame.KEYPOINT_NAMES[keypoint], 0.5, 0.5, 0.0, 0.9));
+        }
+        coordinates.get(PoseFrame.LEFT_SHOULDER).setX(0.3);
+        coordinates.get(PoseFrame.RIGHT_SHOULDER).setX(0.3);
+        coordinates.get(PoseFrame.LEFT_HIP).setX(0.55);
+        coordinates.get(PoseFrame.RIGHT_HIP).setX(0.55);
+        coordinates.get(PoseFrame.RIGHT_HIP).setY(0.52);
+        coordinates.get(PoseFrame.LEFT_ANKLE).setX(0.8);
+        coordinates.get(PoseFrame.RIGHT_ANKLE).setX(0.8);
+        coordinates.get(PoseFrame.RIGHT_ANKLE).setY(0.54);
+        coordinates.get(PoseFrame.LEFT_ELBOW).setY(down ? 0.6 : 0.4);
+        return coordinates;
+    }
+
+    static PoseSequence pushups(int reps) {
+        PoseSequence sequence = new PoseSequence();
+        for (int rep = 0; rep < reps; rep++) {
+            sequence.addFrame(pushupFrame(false));
+            sequence.addFrame(pushupFrame(true));
+            sequence.addFrame(pushupFrame(true));
+        }
+        sequence.addFrame(pushupFrame(false));
+        return sequence;
+    }
+
+    @Test
+    void countsPushupsOnPackedLandmarks() {
+        assertEquals(5, analysisService.countPushups(pushups(5)));
+        assertEquals(5, analysisService.analyzePushups(pushups(5)).getCount());
+    }
+
+    @Test
+    void legacyImagesGiveTheSameResultAsPackedLandmarks() {
+        List<Image> images = new ArrayList<>();
+        PoseSequence sequence = pushups(3);
+        for (int i = 0; i < sequence.getFrameCount(); i++) {
+            images.add(new Image(sequence.toCoordinates(i)));
+        }
+        Video legacy = new Video(images, null);
+        Video packed = new Video();
+        packed.setLandmarks(sequence);
+
+        assertEquals(analysisService.analyzePushups(packed).getAverageScore(),
+                analysisService.analyzePushups(legacy).getAverageScore(), 1e-6);
+        assertEquals(analysisService.analyzePlanks(packed).getDuration(),
+                analysisService.analyzePlanks(legacy).getDuration());
+    }
+
+    @Test
+    void singlePassMatchesSeparateAnalyses() {
+        PoseSequence sequence = pushups(4);
+        sequence.addFrame(Collections.emptyList());
+
+        ExerciseReport report = analysisService.analyze(sequence);
+
+        assertEquals(sequence.getFrameCount() - 1, report.getFramesAnalyzed());
+        assertEquals(4, report.getExercise(PushupAnalyzer.EXERCISE).getCount());
+        assertEquals(analysisService.analyzePushups(sequence).getAverageScore(),
+                report.getExercise(PushupAnalyzer.EXERCISE).getAverageScore(), 1e-9);
+        assertEquals(analysisService.analyzePlanks(sequence).getDuration(),
+                report.getExercise(PlankAnalyzer.EXERCISE).getCount());
+        assertEquals(analysisService.analyzePlanks(sequence).getAverageScore(),
+                report.getExercise(PlankAnalyzer.EXERCISE).getAverageScore(), 1e-9);
+    }
+
+    @Test
+    void skipsFramesWithoutLandmarks() {
+        PoseSequence sequence = new PoseSequence();
+        sequence.addFrame(pushupFrame(false));
+        sequence.addFrame(pushupFrame(true));
+        sequence.addFrame(Collections.emptyList());
+        sequence.addFrame(pushupFrame(false));
+
+        assertEquals(1, analysisService.countPushups(sequence));
+    }
+
+    @Test
+    void straightLineIsOneHundredEightyDegrees() {
+        assertEquals(180.0, VideoAnalysisService.calculateAngle(0, 0, 0, 1, 0, 0, 2, 0, 0), 1e-6);
+        assertEquals(90.0, VideoAnalysisService.calculateAngle(1, 0, 0, 0, 0, 0, 0, 1, 0), 1e-6);
+    }
+}
@@ -0,0 +1,64 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.dto.CursorPage;
+import com.SCU.pose.dto.VideoSummary;
+import com.SCU.pose.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VideoQueryServiceTest {
+
+    private final VideoQueryService service = new VideoQueryService();
+    private final VideoRepository videoRepository = mock(VideoRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "videoRepository", videoRepository);
+    }
+
+    // Summaries with ids from first down to last
+    private static List<VideoSummary> videos(int first, int last) {
+        List<VideoSummary> videos = new ArrayList<>();
+        for (int id = first; id >= last; id--) {
+            videos.add(new VideoSummary(id, 1, "hash" + id, null));
+        }
+        return videos;
+    }
+
+    @Test
+    void nextCursorIsTheLastVideoOfAFullPage() {
+        when(videoRepository.findSummariesBefore(eq(1), eq(Integer.MAX_VALUE), any())).thenReturn(videos(50, 46));
+
+        CursorPage<VideoSummary> page = service.listVideos(1, null, 4);
+
+        assertEquals(4, page.getItems().size());
+        assertEquals(47, page.getNextCursor().intValue());
+        // One extra row tells whether another page follows
+        verify(videoRepository).findSummariesBefore(1, Integer.MAX_VALUE, PageRequest.of(0, 5));
+    }
+
+    @Test
+    void lastPageHasNoCursorAndLimitIsCapped() {
+        when(videoRepository.findSummariesBefore(eq(1), anyInt(), any())).thenReturn(videos(46, 45));
+
+        CursorPage<VideoSummary> page = service.listVideos(1, 47, 1000);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verify(videoRepository).findSummariesBefore(1, 47, PageRequest.of(0, CursorPage.MAX_LIMIT + 1));
+    }
+}
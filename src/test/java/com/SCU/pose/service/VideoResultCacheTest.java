@@ -0,0 +1,80 @@
+package com.SCU.pose.service;
+
+import com.SCU.pose.model.ExerciseReport;
+import com.SCU.pose.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoResultCacheTest {
+
+    private final VideoResultCache cache = new VideoResultCache();
+
+    @BeforeEach
+    void setUp() {
+        VideoRepository videoRepository = mock(VideoRepository.class);
+        when(videoRepository.findAnalysesByContentHash(anyInt(), anyString(), any())).thenReturn(Collections.emptyList());
+        ReflectionTestUtils.setField(cache, "videoRepository", videoRepository);
+        ReflectionTestUtils.setField(cache, "capacity", 16);
+        cache.init();
+    }
+
+    @Test
+    void concurrentDuplicatesAreProcessedOnce() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExerciseReport report = new ExerciseReport(10);
+
+        ExecutorService uploads = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = uploads.submit(() -> cache.getOrCompute(1, "abc", () -> {
+                    processed.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return report;
+                }));
+            }
+            // Let every upload reach the cache before the first one finishes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<?> result : results) {
+                assertSame(report, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            uploads.shutdownNow();
+        }
+        assertEquals(1, processed.get());
+    }
+
+    @Test
+    void repeatedUploadIsServedFromMemory() {
+        ExerciseReport report = new ExerciseReport(3);
+        cache.getOrCompute(1, "abc", () -> report);
+
+        assertSame(report, cache.getOrCompute(1, "abc", () -> {
+            throw new AssertionError("processed again");
+        }));
+        assertEquals(0, cache.getOrCompute(2, "abc", () -> new ExerciseReport(0)).getFramesAnalyzed());
+    }
+}